@@ -9,7 +9,11 @@ public class AnnotatedGraph<K extends Comparable<K>, T extends Comparable<T>> ex
 	private final T defaultAnnotation;
 	
 	public AnnotatedGraph(T defaultAnnotation, double maxPathCost, int maxPathLength){
-		super(maxPathCost, maxPathLength);
+		this(defaultAnnotation, maxPathCost, maxPathLength, false);
+	}
+	
+	public AnnotatedGraph(T defaultAnnotation, double maxPathCost, int maxPathLength, boolean undirected){
+		super(maxPathCost, maxPathLength, undirected);
 		this.defaultAnnotation = defaultAnnotation;
 	}
 	
@@ -34,7 +38,7 @@ public class AnnotatedGraph<K extends Comparable<K>, T extends Comparable<T>> ex
 	
 	@Override
 	Graph<K> emptyGraph() {
-		return new AnnotatedGraph<>(defaultAnnotation, maxPathCost, maxPathLength);
+		return new AnnotatedGraph<>(defaultAnnotation, maxPathCost, maxPathLength, undirected);
 	}
 	
 	@Override
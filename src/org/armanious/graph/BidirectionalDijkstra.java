@@ -0,0 +1,78 @@
+package org.armanious.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * Grows one Dijkstra frontier from each endpoint of an undirected {@link CompressedGraph} and joins them where
+ * they meet. The search stops once the two smallest queued distances add up to at least the cheapest
+ * connection found so far, so on graphs with hubs it settles far fewer vertices than a one-sided search.
+ * A connection is only accepted if its total cost is within {@code maxPathCost} and it has at most
+ * {@code maxPathLength} vertices.
+ */
+final class BidirectionalDijkstra {
+
+	private BidirectionalDijkstra(){}
+
+	static <K> ArrayList<Edge<K>> search(VertexIndex<K> index, CompressedGraph.Rows rows, int source, int target, double maxPathCost, int maxPathLength){
+		final ArrayList<Edge<K>> path = new ArrayList<>();
+		if(source == target) return path;
+
+		final SearchScratch forward = SearchScratch.FORWARD.get();
+		final SearchScratch backward = SearchScratch.BACKWARD.get();
+		forward.reset(index.size());
+		backward.reset(index.size());
+		forward.label(source, 0, 1, -1, -1);
+		forward.queue.update(source, 0);
+		backward.label(target, 0, 1, -1, -1);
+		backward.queue.update(target, 0);
+
+		double best = Double.POSITIVE_INFINITY;
+		while(!forward.queue.isEmpty() || !backward.queue.isEmpty()){
+			final double forwardMin = forward.queue.isEmpty() ? 0 : forward.queue.peekKey();
+			final double backwardMin = backward.queue.isEmpty() ? 0 : backward.queue.peekKey();
+			if(forwardMin + backwardMin >= best) break;
+
+			// advance the side with the smaller frontier
+			final boolean advanceForward = backward.queue.isEmpty()
+					|| (!forward.queue.isEmpty() && forward.queue.size() <= backward.queue.size());
+			final SearchScratch side = advanceForward ? forward : backward;
+			final SearchScratch other = advanceForward ? backward : forward;
+
+			final int cur = side.queue.poll();
+			final double currentCost = side.distances[cur];
+			final int currentLength = side.lengths[cur];
+			if(currentLength == maxPathLength) continue;
+			for(int edge = rows.offsets[cur]; edge < rows.offsets[cur + 1]; edge++){
+				final int next = rows.targets[edge];
+				final double cost = currentCost + (1000D - rows.weights[edge]);
+				if(cost >= (side.isLabelled(next) ? side.distances[next] : Double.MAX_VALUE) || cost > maxPathCost)
+					continue;
+				side.label(next, cost, currentLength + 1, cur, edge);
+				side.queue.update(next, cost);
+				if(other.isLabelled(next)){
+					final double total = cost + other.distances[next];
+					// both lengths count the meeting vertex
+					if(total < best && total <= maxPathCost && currentLength + other.lengths[next] <= maxPathLength){
+						best = total;
+						// labels along either half may still improve, so keep the path as it is now
+						path.clear();
+						addPath(index, rows, forward, backward, next, path);
+					}
+				}
+			}
+		}
+		forward.queue.clear();
+		backward.queue.clear();
+		return path;
+	}
+
+	private static <K> void addPath(VertexIndex<K> index, CompressedGraph.Rows rows, SearchScratch forward, SearchScratch backward, int meeting, ArrayList<Edge<K>> path){
+		for(int v = meeting; forward.prevVertices[v] >= 0; v = forward.prevVertices[v])
+			path.add(new Edge<>(index.get(forward.prevVertices[v]), index.get(v), rows.weights[forward.prevEdges[v]]));
+		Collections.reverse(path);
+		for(int v = meeting; backward.prevVertices[v] >= 0; v = backward.prevVertices[v])
+			path.add(new Edge<>(index.get(v), index.get(backward.prevVertices[v]), rows.weights[backward.prevEdges[v]]));
+	}
+
+}
@@ -0,0 +1,105 @@
+package org.armanious.graph;
+
+import java.util.Arrays;
+
+/**
+ * A monotone priority queue of int ids with small integer keys (Dial's algorithm): one FIFO list per key, scanned
+ * upwards from the last key polled. Inserting, re-keying and polling are O(1) apart from skipping empty buckets.
+ * Keys may never be below the last key polled, and all keys queued at once must lie within {@code span} of it,
+ * which holds for Dijkstra as long as no edge costs more than {@code span - 1}; buckets are reused cyclically.
+ */
+final class BucketQueue implements SearchQueue {
+
+	private int[] heads = new int[0];
+	private int[] tails = new int[0];
+	private int span;
+	// by id; prev is -2 when the id is not queued
+	private int[] next = new int[0];
+	private int[] prev = new int[0];
+	private int[] keys = new int[0];
+	private int size;
+	private int cursor;
+
+	void ensureCapacity(int ids, int span){
+		if(ids > next.length){
+			final int oldLength = next.length;
+			final int length = Math.max(ids, oldLength * 2);
+			next = Arrays.copyOf(next, length);
+			prev = Arrays.copyOf(prev, length);
+			keys = Arrays.copyOf(keys, length);
+			Arrays.fill(prev, oldLength, length, -2);
+		}
+		if(span > heads.length){
+			heads = new int[span];
+			tails = new int[span];
+			Arrays.fill(heads, -1);
+		}
+		this.span = span;
+	}
+
+	@Override
+	public boolean isEmpty(){
+		return size == 0;
+	}
+
+	boolean contains(int id){
+		return prev[id] != -2;
+	}
+
+	/**
+	 * Inserts {@code id}, or moves it to the end of the bucket for its new key if it is already present;
+	 * {@code key} must be a non-negative integer.
+	 */
+	@Override
+	public void update(int id, double key){
+		if(prev[id] != -2) remove(id);
+		final int k = (int) key;
+		if(size == 0 || k < cursor) cursor = k;
+		final int bucket = k % span;
+		keys[id] = k;
+		next[id] = -1;
+		if(heads[bucket] == -1){
+			prev[id] = -1;
+			heads[bucket] = id;
+		}else{
+			prev[id] = tails[bucket];
+			next[tails[bucket]] = id;
+		}
+		tails[bucket] = id;
+		size++;
+	}
+
+	@Override
+	public int poll(){
+		int bucket = cursor % span;
+		while(heads[bucket] == -1){
+			cursor++;
+			if(++bucket == span) bucket = 0;
+		}
+		final int result = heads[bucket];
+		remove(result);
+		return result;
+	}
+
+	private void remove(int id){
+		final int bucket = keys[id] % span;
+		if(prev[id] == -1) heads[bucket] = next[id];
+		else next[prev[id]] = next[id];
+		if(next[id] == -1) tails[bucket] = prev[id];
+		else prev[next[id]] = prev[id];
+		prev[id] = -2;
+		size--;
+	}
+
+	@Override
+	public void clear(){
+		for(int bucket = 0; bucket < span && size > 0; bucket++){
+			for(int id = heads[bucket]; id != -1; id = next[id]){
+				prev[id] = -2;
+				size--;
+			}
+			heads[bucket] = -1;
+		}
+	}
+
+}
@@ -0,0 +1,580 @@
+package org.armanious.graph;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A graph whose adjacency is kept in compressed-sparse-row form: the edges leaving the vertex
+ * with index {@code v} are {@code targets[offsets[v]..offsets[v + 1])} with the matching {@code weights}.
+ * {@link Edge} objects are only created when neighbors are requested through the {@link Graph} API.
+ * Edges cannot be added, but vertices can be removed, preferably many at once with {@link #removeVertices(Collection)}.
+ * <p>
+ * Searches relax the edges of a vertex in row order, so the order of each row decides which of several equally
+ * cheap paths is returned, and with a limiting {@code maxPathLength} even whether a path is found at all. A
+ * {@link Graph} built edge by edge visits neighbors in the unspecified order of its hash sets instead; the same
+ * edges in a different order can therefore give different paths, and under a limiting hop bound different costs.
+ */
+public class CompressedGraph<K extends Comparable<K>> extends Graph<K> {
+
+	protected final VertexIndex<K> index;
+	private volatile Rows rows;
+	private List<K> vertices;
+	private PathfindingAlgorithm algorithm = PathfindingAlgorithm.DIJKSTRA;
+	private LandmarkIndex landmarks;
+	private HubLabels hubLabels;
+	private final BitSet removed = new BitSet();
+	private int[] reachabilityEndpoints;
+	private volatile HopReachability reachability;
+	// trees from precomputeTrees, by source
+	private final ConcurrentHashMap<Integer, SourceTree<K>> trees = new ConcurrentHashMap<>();
+
+	// replaced as a whole so that a search never sees the arrays of two different adjacencies
+	static final class Rows {
+		final int[] offsets;
+		final int[] targets;
+		final short[] weights;
+		// the lowest and highest edge cost 1000 - weight, or -1 if some edge costs less than 0 or more than 1000
+		final int minEdgeCost;
+		final int maxEdgeCost;
+
+		Rows(int[] offsets, int[] targets, short[] weights){
+			this.offsets = offsets;
+			this.targets = targets;
+			this.weights = weights;
+			int minWeight = 1000;
+			int maxWeight = 0;
+			for(int edge = 0; edge < offsets[offsets.length - 1] && minWeight >= 0; edge++){
+				if(weights[edge] > 1000) minWeight = -1;
+				else if(weights[edge] < minWeight) minWeight = weights[edge];
+				if(weights[edge] > maxWeight) maxWeight = weights[edge];
+			}
+			this.minEdgeCost = minWeight < 0 ? -1 : 1000 - maxWeight;
+			this.maxEdgeCost = minWeight < 0 ? -1 : 1000 - minWeight;
+		}
+
+		private volatile int[] components;
+
+		/**
+		 * @return the connected component of every vertex, numbered in order of their lowest vertex; computed
+		 * on first use, as the rows never change
+		 */
+		int[] components(){
+			int[] components = this.components;
+			if(components == null){
+				final int vertices = offsets.length - 1;
+				components = new int[vertices];
+				Arrays.fill(components, -1);
+				final int[] queue = new int[vertices];
+				int count = 0;
+				for(int v = 0; v < vertices; v++){
+					if(components[v] >= 0) continue;
+					components[v] = count;
+					int head = 0, tail = 0;
+					queue[tail++] = v;
+					while(head < tail){
+						final int u = queue[head++];
+						for(int edge = offsets[u]; edge < offsets[u + 1]; edge++){
+							if(components[targets[edge]] < 0){
+								components[targets[edge]] = count;
+								queue[tail++] = targets[edge];
+							}
+						}
+					}
+					count++;
+				}
+				this.components = components;
+			}
+			return components;
+		}
+	}
+
+	/**
+	 * Creates a graph without edges; subclasses fill it in with {@link #setAdjacency(int[], int[], short[])}.
+	 */
+	protected CompressedGraph(VertexIndex<K> index, double maxPathCost, int maxPathLength) {
+		this(index, new int[index.size() + 1], new int[0], new short[0], maxPathCost, maxPathLength);
+	}
+
+	public CompressedGraph(VertexIndex<K> index, int[] offsets, int[] targets, short[] weights, double maxPathCost, int maxPathLength) {
+		super(maxPathCost, maxPathLength);
+		this.index = index;
+		setAdjacency(offsets, targets, weights);
+	}
+
+	/**
+	 * Replaces the adjacency wholesale; for subclasses whose vertex set grows, such as lazily loaded graphs.
+	 * The arrays themselves are never modified; edges to or from removed vertices are left out.
+	 */
+	protected final synchronized void setAdjacency(int[] offsets, int[] targets, short[] weights) {
+		if(offsets.length != index.size() + 1 || targets.length != weights.length || offsets[index.size()] > targets.length)
+			throw new IllegalArgumentException("Adjacency arrays do not match the vertex index");
+		this.rows = removed.isEmpty() ? new Rows(offsets, targets, weights) : withoutRemoved(offsets, targets, weights);
+		this.vertices = null;
+		trees.clear();
+	}
+
+	private Rows withoutRemoved(int[] offsets, int[] targets, short[] weights) {
+		final int[] keptOffsets = new int[offsets.length];
+		int kept = 0;
+		for(int v = 0; v < index.size(); v++){
+			if(!removed.get(v))
+				for(int edge = offsets[v]; edge < offsets[v + 1]; edge++)
+					if(!removed.get(targets[edge])) kept++;
+			keptOffsets[v + 1] = kept;
+		}
+		final int[] keptTargets = new int[kept];
+		final short[] keptWeights = new short[kept];
+		for(int v = 0, pos = 0; v < index.size(); v++){
+			if(removed.get(v)) continue;
+			for(int edge = offsets[v]; edge < offsets[v + 1]; edge++){
+				if(removed.get(targets[edge])) continue;
+				keptTargets[pos] = targets[edge];
+				keptWeights[pos++] = weights[edge];
+			}
+		}
+		return new Rows(keptOffsets, keptTargets, keptWeights);
+	}
+
+	Rows rows() {
+		return rows;
+	}
+
+	public VertexIndex<K> getIndex() {
+		return index;
+	}
+
+	public int getEdgeCount() {
+		return rows.offsets[index.size()];
+	}
+
+	public PathfindingAlgorithm getPathfindingAlgorithm() {
+		return algorithm;
+	}
+
+	public void setPathfindingAlgorithm(PathfindingAlgorithm algorithm) {
+		this.algorithm = algorithm;
+	}
+
+	public LandmarkIndex getLandmarks() {
+		return landmarks;
+	}
+
+	/**
+	 * Sets the landmarks {@link PathfindingAlgorithm#ALT} searches with; they must have been computed over this
+	 * graph or a supergraph of it with the same vertex index.
+	 */
+	public void setLandmarks(LandmarkIndex landmarks) {
+		if(landmarks != null && landmarks.getVertexCount() != index.size())
+			throw new IllegalArgumentException("Landmarks were computed for " + landmarks.getVertexCount() + " vertices; this graph has " + index.size());
+		this.landmarks = landmarks;
+	}
+
+	public HubLabels getHubLabels() {
+		return hubLabels;
+	}
+
+	/**
+	 * Sets the labels {@link PathfindingAlgorithm#HUB_LABELS} answers queries with; they must have been computed
+	 * over this graph or a supergraph of it with the same vertex index, for paths up to at least {@code maxPathCost}.
+	 */
+	public void setHubLabels(HubLabels hubLabels) {
+		if(hubLabels != null && hubLabels.getVertexCount() != index.size())
+			throw new IllegalArgumentException("Hub labels were computed for " + hubLabels.getVertexCount() + " vertices; this graph has " + index.size());
+		if(hubLabels != null && hubLabels.getMaxCost() < Math.floor(maxPathCost))
+			throw new IllegalArgumentException("Hub labels only cover paths up to cost " + hubLabels.getMaxCost() + "; maxPathCost is " + maxPathCost);
+		if(hubLabels != null && !removed.isEmpty())
+			throw new IllegalStateException("Hub labels give exact distances, which do not hold once vertices have been removed");
+		this.hubLabels = hubLabels;
+	}
+
+	@Override
+	public void addEdge(Edge<K> edge) {
+		throw new UnsupportedOperationException("Edges cannot be added to a CompressedGraph");
+	}
+
+	@Override
+	public void removeVertex(K k) {
+		removeVertices(Collections.singletonList(k));
+	}
+
+	/**
+	 * Removes the vertices, every edge to or from them and every cached path from or to them, rebuilding the rows
+	 * once for all of them. Landmark bounds still hold afterwards, but hub labels are dropped.
+	 */
+	public synchronized void removeVertices(Collection<K> ks) {
+		boolean changed = false;
+		for(K k : ks){
+			final int v = index.indexOf(k);
+			if(v >= 0 && !removed.get(v)){
+				removed.set(v);
+				changed = true;
+			}
+		}
+		if(!changed) return;
+		final Rows rows = this.rows;
+		this.rows = withoutRemoved(rows.offsets, rows.targets, rows.weights);
+		this.vertices = null;
+		this.hubLabels = null;
+		trees.clear();
+		cachedPaths.removeAll(ks);
+	}
+
+	/**
+	 * @return whether {@code k} was removed with {@link #removeVertices(Collection)} or {@link #removeVertex(Comparable)}
+	 */
+	public boolean isRemoved(K k) {
+		final int v = index.indexOf(k);
+		return v >= 0 && removed.get(v);
+	}
+
+	@Override
+	public void clear() {
+		throw new UnsupportedOperationException("Edges cannot be added to a CompressedGraph, so it cannot be cleared");
+	}
+
+	/**
+	 * @return whether {@code a} and {@code b} are vertices of the same connected component; cheap after the first
+	 * call for the current adjacency, which labels every vertex. Edges are assumed to go both ways, as in an interactome.
+	 */
+	public boolean isConnected(K a, K b) {
+		final int u = index.indexOf(a);
+		final int v = index.indexOf(b);
+		if(u < 0 || v < 0 || !containsVertex(a) || !containsVertex(b)) return false;
+		final int[] components = rows.components();
+		return components[u] == components[v];
+	}
+
+	/**
+	 * Indexes which of {@code endpoints} are joined by some path of at most {@code maxPathLength} vertices,
+	 * ignoring costs, so that {@link #isReachable(Comparable, Comparable)} can rule out the other pairs among
+	 * them without searching. The index is rebuilt on the next query whenever the adjacency changes.
+	 */
+	public synchronized void indexReachability(Collection<K> endpoints) {
+		final ArrayList<Integer> indexed = new ArrayList<>(endpoints.size());
+		for(K endpoint : endpoints){
+			final int v = index.indexOf(endpoint);
+			if(v >= 0) indexed.add(v);
+		}
+		reachabilityEndpoints = indexed.stream().mapToInt(Integer::intValue).toArray();
+		reachability = new HopReachability(rows, reachabilityEndpoints, maxPathLength - 1);
+	}
+
+	private synchronized HopReachability reindexReachability() {
+		final Rows rows = this.rows;
+		if(reachability.rows != rows)
+			reachability = new HopReachability(rows, reachabilityEndpoints, maxPathLength - 1);
+		return reachability;
+	}
+
+	@Override
+	public boolean isReachable(K src, K dst) {
+		if(!isConnected(src, dst)) return false;
+		HopReachability reachability = this.reachability;
+		if(reachability == null) return true;
+		if(reachability.rows != rows) reachability = reindexReachability();
+		return reachability.isReachable(index.indexOf(src), index.indexOf(dst));
+	}
+
+	@Override
+	public boolean containsVertex(K k) {
+		final int v = index.indexOf(k);
+		final int[] offsets = rows.offsets;
+		return v >= 0 && offsets[v] < offsets[v + 1];
+	}
+
+	@Override
+	public Collection<K> getVertices() {
+		// like Graph, only vertices with at least one edge are part of the graph
+		List<K> vertices = this.vertices;
+		if(vertices == null){
+			final int[] offsets = rows.offsets;
+			final ArrayList<K> list = new ArrayList<>();
+			for(int v = 0; v < index.size(); v++)
+				if(offsets[v] < offsets[v + 1])
+					list.add(index.get(v));
+			this.vertices = vertices = Collections.unmodifiableList(list);
+		}
+		return vertices;
+	}
+
+	@Override
+	public Collection<Edge<K>> getNeighbors(K n) {
+		final int v = index.indexOf(n);
+		if(v < 0) return null;
+		final K source = index.get(v);
+		final Rows rows = this.rows;
+		final int start = rows.offsets[v];
+		final int size = rows.offsets[v + 1] - start;
+		return new AbstractList<Edge<K>>() {
+			@Override
+			public Edge<K> get(int i) {
+				if(i < 0 || i >= size) throw new IndexOutOfBoundsException(String.valueOf(i));
+				return new Edge<>(source, index.get(rows.targets[start + i]), rows.weights[start + i]);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	@Override
+	protected Path<K> computePath(K src, K dst) {
+		return computePaths(src, Collections.singletonList(dst)).get(dst);
+	}
+
+	@Override
+	protected Map<K, Path<K>> computePaths(K src, Collection<K> dsts) {
+		switch(algorithm){
+		case HUB_LABELS: {
+			final HubLabels hubLabels = this.hubLabels;
+			if(hubLabels == null)
+				throw new IllegalStateException("HUB_LABELS path queries need hub labels; see setHubLabels");
+			final HashMap<K, Path<K>> paths = new HashMap<>();
+			final int source = index.indexOf(src);
+			for(K dst : dsts){
+				final int target = index.indexOf(dst);
+				final ArrayList<Edge<K>> path = source < 0 || target < 0 ? null : hubLabels.path(index, source, target);
+				if(path == null)
+					paths.put(dst, new Path<>());
+				else if(path.size() < maxPathLength)
+					paths.put(dst, new Path<>(path));
+				else // the cheapest path has too many vertices; search for one within the bound instead
+					paths.put(dst, dijkstra(src, Collections.singletonList(dst)).get(dst));
+			}
+			return paths;
+		}
+		case DELTA_STEPPING: {
+			final Rows rows = this.rows;
+			final int source = index.indexOf(src);
+			if(source < 0 || !DeltaStepping.isWorthwhile(rows, source)) return dijkstra(src, dsts);
+			final int[] distances = DeltaStepping.distances(rows, index.size(), source, maxPathCost);
+			final HashMap<K, Path<K>> paths = new HashMap<>();
+			final ArrayList<K> tooLong = new ArrayList<>();
+			for(K dst : dsts){
+				final int target = index.indexOf(dst);
+				final ArrayList<Edge<K>> path = target < 0 ? new ArrayList<>() : DeltaStepping.path(index, rows, distances, source, target);
+				if(path.size() < maxPathLength) paths.put(dst, new Path<>(path));
+				else tooLong.add(dst);
+			}
+			// the cheapest path has too many vertices; search for one within the bound instead
+			if(!tooLong.isEmpty()) paths.putAll(dijkstra(src, tooLong));
+			return paths;
+		}
+		case BIDIRECTIONAL_DIJKSTRA:
+		case ALT: {
+			final LandmarkIndex landmarks = this.landmarks;
+			if(algorithm == PathfindingAlgorithm.ALT && landmarks == null)
+				throw new IllegalStateException("ALT path queries need landmarks; see setLandmarks");
+			final HashMap<K, Path<K>> paths = new HashMap<>();
+			final Rows rows = this.rows;
+			final int source = index.indexOf(src);
+			for(K dst : dsts){
+				final int target = index.indexOf(dst);
+				if(source < 0 || target < 0)
+					paths.put(dst, new Path<>());
+				else if(algorithm == PathfindingAlgorithm.ALT)
+					paths.put(dst, new Path<>(LandmarkSearch.search(index, rows, landmarks, source, target, maxPathCost, maxPathLength)));
+				else
+					paths.put(dst, new Path<>(BidirectionalDijkstra.search(index, rows, source, target, maxPathCost, maxPathLength)));
+			}
+			return paths;
+		}
+		case HOP_BOUNDED_BELLMAN_FORD: {
+			if(!HopBoundedBellmanFord.fits(index.size(), maxPathLength)) return dijkstra(src, dsts);
+			final HashMap<K, Path<K>> paths = new HashMap<>();
+			final int source = index.indexOf(src);
+			if(source < 0){
+				for(K dst : dsts) paths.put(dst, new Path<>());
+				return paths;
+			}
+			final ArrayList<K> destinations = new ArrayList<>(dsts);
+			final int[] targets = new int[destinations.size()];
+			for(int i = 0; i < targets.length; i++)
+				targets[i] = index.indexOf(destinations.get(i));
+			final ArrayList<ArrayList<Edge<K>>> found = HopBoundedBellmanFord.search(index, rows, source, targets, maxPathCost, maxPathLength);
+			for(int i = 0; i < targets.length; i++)
+				paths.put(destinations.get(i), new Path<>(found.get(i)));
+			return paths;
+		}
+		default:
+			return dijkstra(src, dsts);
+		}
+	}
+
+	/**
+	 * The same search as {@link Graph#dijkstras(Comparable, Comparable, java.util.function.Function, double, int)}
+	 * with cost {@code 1000 - weight}, run directly on the rows. It stops once every destination has been settled
+	 * and reads each path off the resulting shortest-path tree; a destination's predecessors are final when it is
+	 * settled, so every path is the one a search for that destination alone would return. Vertices are settled
+	 * from an {@link IndexedHeap}, which breaks ties like the {@link Graph} search does, or from a {@link BucketQueue}
+	 * for {@link PathfindingAlgorithm#DIAL} unless some edge cost is out of range. Sources with a tree from
+	 * {@link #precomputeTrees(Collection)} are answered from that instead.
+	 */
+	private Map<K, Path<K>> dijkstra(K src, Collection<K> dsts) {
+		final HashMap<K, Path<K>> paths = new HashMap<>();
+		final Rows rows = this.rows;
+		final int[] offsets = rows.offsets;
+		final int source = index.indexOf(src);
+		if(source < 0 || offsets[source] == offsets[source + 1]){
+			for(K dst : dsts) paths.put(dst, new Path<>());
+			return paths;
+		}
+
+		final SourceTree<K> precomputed = trees.get(source);
+		if(precomputed != null && precomputed.rows == rows){
+			for(K dst : dsts){
+				final int target = index.indexOf(dst);
+				final int node = target < 0 || target == source ? -1 : precomputed.nodes[target];
+				paths.put(dst, node < 0 ? new Path<>() : new Path<>(precomputed.tree, node));
+			}
+			return paths;
+		}
+
+		final SearchScratch scratch = SearchScratch.FORWARD.get();
+		scratch.reset(index.size());
+		final int[] destinationStamps = scratch.destinationStamps;
+		final int stamp = scratch.stamp;
+		int pending = 0;
+		for(K dst : dsts){
+			final int target = index.indexOf(dst);
+			if(target >= 0 && offsets[target] < offsets[target + 1] && destinationStamps[target] != stamp){
+				destinationStamps[target] = stamp;
+				pending++;
+			}
+		}
+		if(pending > 0) search(rows, source, scratch, pending,
+				algorithm == PathfindingAlgorithm.DIAL ? scratch.queue(rows.maxEdgeCost, maxPathCost) : scratch.queue);
+
+		// the paths share the part of the search tree they run through; each is only a view of its last node
+		final PathTree<K> tree = new PathTree<>(index, source);
+		scratch.nodes[source] = 0;
+		scratch.nodeStamps[source] = stamp;
+		for(K dst : dsts){
+			final int target = index.indexOf(dst);
+			if(target < 0 || destinationStamps[target] != stamp || scratch.stamps[target] != stamp || target == source){
+				paths.put(dst, new Path<>());
+				continue;
+			}
+			addToTree(tree, target, scratch, rows.weights);
+			paths.put(dst, new Path<>(tree, scratch.nodes[target]));
+		}
+		tree.trimToSize();
+		return paths;
+	}
+
+	/**
+	 * Settles vertices from {@code source} until {@code pending} destinations have been settled, or every vertex
+	 * within the path bounds if {@code pending} is negative; {@code scratch} must have just been reset and
+	 * {@code queue} must be one of its queues.
+	 */
+	private void search(Rows rows, int source, SearchScratch scratch, int pending, SearchQueue queue) {
+		final int[] offsets = rows.offsets;
+		final int[] targets = rows.targets;
+		final short[] weights = rows.weights;
+		final double[] distances = scratch.distances;
+		final int[] lengths = scratch.lengths;
+		final int[] prevVertices = scratch.prevVertices;
+		final int[] prevEdges = scratch.prevEdges;
+		final int[] stamps = scratch.stamps;
+		final int[] destinationStamps = scratch.destinationStamps;
+		final int stamp = scratch.stamp;
+
+		stamps[source] = stamp;
+		distances[source] = 0;
+		lengths[source] = 1;
+		prevVertices[source] = -1;
+		queue.update(source, 0);
+
+		while(!queue.isEmpty()){
+			final int cur = queue.poll();
+			if(destinationStamps[cur] == stamp && --pending == 0) break;
+			final double currentCost = distances[cur];
+			final int currentLength = lengths[cur];
+			if(currentLength == maxPathLength) continue;
+			for(int edge = offsets[cur]; edge < offsets[cur + 1]; edge++){
+				final int next = targets[edge];
+				final double cost = currentCost + (1000D - weights[edge]);
+				if(cost < (stamps[next] == stamp ? distances[next] : Double.MAX_VALUE) && cost <= maxPathCost){
+					stamps[next] = stamp;
+					distances[next] = cost;
+					lengths[next] = currentLength + 1;
+					prevVertices[next] = cur;
+					prevEdges[next] = edge;
+					queue.update(next, cost);
+				}
+			}
+		}
+		queue.clear();
+	}
+
+	// a full shortest-path tree from one source, for the rows it was computed over
+	private static final class SourceTree<K> {
+		final Rows rows;
+		final PathTree<K> tree;
+		// the node of each vertex, or -1 where it is out of reach
+		final int[] nodes;
+
+		SourceTree(Rows rows, PathTree<K> tree, int[] nodes){
+			this.rows = rows;
+			this.tree = tree;
+			this.nodes = nodes;
+		}
+	}
+
+	/**
+	 * Searches once from each of {@code sources} to every vertex within the path bounds and keeps the resulting
+	 * shortest-path trees, so that later {@link PathfindingAlgorithm#DIJKSTRA} queries from those sources only
+	 * walk parent pointers. A tree answers every query exactly as a search would; trees are dropped once the
+	 * adjacency changes. Searches from different sources run in parallel.
+	 */
+	public void precomputeTrees(Collection<K> sources) {
+		final Rows rows = this.rows;
+		new ArrayList<>(sources).parallelStream().forEach(src -> {
+			final int source = index.indexOf(src);
+			if(source < 0 || rows.offsets[source] == rows.offsets[source + 1]) return;
+			final SearchScratch scratch = SearchScratch.FORWARD.get();
+			scratch.reset(index.size());
+			search(rows, source, scratch, -1, scratch.queue);
+			final PathTree<K> tree = new PathTree<>(index, source);
+			scratch.nodes[source] = 0;
+			scratch.nodeStamps[source] = scratch.stamp;
+			final int[] nodes = new int[index.size()];
+			Arrays.fill(nodes, -1);
+			for(int v = 0; v < nodes.length; v++){
+				if(scratch.stamps[v] != scratch.stamp || v == source) continue;
+				addToTree(tree, v, scratch, rows.weights);
+				nodes[v] = scratch.nodes[v];
+			}
+			tree.trimToSize();
+			trees.put(source, new SourceTree<>(rows, tree, nodes));
+		});
+	}
+
+	private static void addToTree(PathTree<?> tree, int target, SearchScratch scratch, short[] weights) {
+		final int[] prevVertices = scratch.prevVertices;
+		final int[] prevEdges = scratch.prevEdges;
+		final int[] nodes = scratch.nodes;
+		final int[] nodeStamps = scratch.nodeStamps;
+		final int stamp = scratch.stamp;
+		// walk back to the closest vertex already in the tree, then add the vertices after it in order
+		int length = 0;
+		for(int v = target; nodeStamps[v] != stamp; v = prevVertices[v]) length++;
+		final int[] chain = new int[length];
+		for(int i = length - 1, u = target; i >= 0; i--, u = prevVertices[u]) chain[i] = u;
+		for(int u : chain){
+			nodes[u] = tree.add(nodes[prevVertices[u]], u, weights[prevEdges[u]]);
+			nodeStamps[u] = stamp;
+		}
+	}
+
+}
@@ -0,0 +1,148 @@
+package org.armanious.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Single-source shortest paths by delta-stepping over the rows of a {@link CompressedGraph}. Vertices are settled
+ * bucket by bucket, where bucket {@code i} holds the tentative distances in {@code [i * delta, (i + 1) * delta)},
+ * and the edges of all vertices of a bucket are relaxed in parallel on the common fork-join pool. Distances are
+ * exact and independent of scheduling; predecessors are chosen afterwards from the final distances, so paths are
+ * deterministic as well. Like any search that keeps only costs, it ignores hop bounds.
+ */
+final class DeltaStepping {
+
+	private DeltaStepping(){}
+
+	// below roughly this many vertices two hops around the source, a sequential search is cheaper
+	private static final int PARALLEL_THRESHOLD = 1 << 12;
+
+	private static final class IntList {
+		int[] values = new int[16];
+		int size;
+
+		void add(int value){
+			if(size == values.length) values = Arrays.copyOf(values, size * 2);
+			values[size++] = value;
+		}
+	}
+
+	/**
+	 * @return whether a search from {@code source} is likely to reach enough vertices to be worth parallelizing;
+	 * estimated from the sizes of the rows of its neighbors
+	 */
+	static boolean isWorthwhile(CompressedGraph.Rows rows, int source){
+		if(ForkJoinPool.getCommonPoolParallelism() < 2 || rows.minEdgeCost <= 0) return false;
+		long frontier = 0;
+		for(int edge = rows.offsets[source]; edge < rows.offsets[source + 1] && frontier < PARALLEL_THRESHOLD; edge++){
+			final int next = rows.targets[edge];
+			frontier += rows.offsets[next + 1] - rows.offsets[next];
+		}
+		return frontier >= PARALLEL_THRESHOLD;
+	}
+
+	/**
+	 * @return the cost of a cheapest path from {@code source} to every vertex, or {@link Integer#MAX_VALUE} where
+	 * that is above {@code maxPathCost}; every edge must cost an integer between 1 and 1000
+	 */
+	static int[] distances(CompressedGraph.Rows rows, int vertices, int source, double maxPathCost){
+		final int maxCost = (int) Math.floor(Math.min(maxPathCost, Integer.MAX_VALUE - 1000));
+		final int edges = rows.offsets[vertices];
+		// edges up to delta are light and may land in the bucket being settled; heavier ones never do
+		final int delta = Math.max(rows.minEdgeCost, (int) Math.min(rows.maxEdgeCost, (long) rows.maxEdgeCost * vertices / Math.max(1, edges)));
+		final AtomicIntegerArray distances = new AtomicIntegerArray(vertices);
+		for(int v = 0; v < vertices; v++)
+			distances.set(v, Integer.MAX_VALUE);
+		distances.set(source, 0);
+
+		final ArrayList<IntList> buckets = new ArrayList<>();
+		buckets.add(new IntList());
+		buckets.get(0).add(source);
+		final int[] stamps = new int[vertices];
+		int stamp = 0;
+		for(int i = 0; i < buckets.size(); i++){
+			final IntList settled = new IntList();
+			while(buckets.get(i).size > 0){
+				final IntList bucket = buckets.get(i);
+				buckets.set(i, new IntList());
+				stamp++;
+				final IntList frontier = new IntList();
+				for(int j = 0; j < bucket.size; j++){
+					final int v = bucket.values[j];
+					if(stamps[v] != stamp && distances.get(v) / delta == i){
+						stamps[v] = stamp;
+						frontier.add(v);
+						settled.add(v);
+					}
+				}
+				fill(buckets, distances, delta, relax(rows, distances, frontier, delta, maxCost, true));
+			}
+			fill(buckets, distances, delta, relax(rows, distances, settled, delta, maxCost, false));
+		}
+
+		final int[] result = new int[vertices];
+		for(int v = 0; v < vertices; v++)
+			result[v] = distances.get(v);
+		return result;
+	}
+
+	// relaxes the light or the heavy edges of every vertex in parallel; returns the vertices that improved
+	private static int[] relax(CompressedGraph.Rows rows, AtomicIntegerArray distances, IntList vertices, int delta, int maxCost, boolean light){
+		return IntStream.of(Arrays.copyOf(vertices.values, vertices.size)).parallel().flatMap(v -> {
+			final IntStream.Builder improved = IntStream.builder();
+			final int distance = distances.get(v);
+			for(int edge = rows.offsets[v]; edge < rows.offsets[v + 1]; edge++){
+				final int cost = 1000 - rows.weights[edge];
+				if((cost <= delta) != light) continue;
+				final int next = rows.targets[edge];
+				final int candidate = distance + cost;
+				if(candidate > maxCost) continue;
+				for(int current = distances.get(next); candidate < current; current = distances.get(next)){
+					if(distances.compareAndSet(next, current, candidate)){
+						improved.add(next);
+						break;
+					}
+				}
+			}
+			return improved.build();
+		}).toArray();
+	}
+
+	private static void fill(ArrayList<IntList> buckets, AtomicIntegerArray distances, int delta, int[] improved){
+		for(int v : improved){
+			final int bucket = distances.get(v) / delta;
+			while(buckets.size() <= bucket) buckets.add(new IntList());
+			buckets.get(bucket).add(v);
+		}
+	}
+
+	/**
+	 * @return the edges of a cheapest path from {@code source} to {@code target} given the final {@code distances},
+	 * taking the lowest-indexed predecessor wherever several are equally cheap; empty if {@code target} is unreachable
+	 */
+	static <K> ArrayList<Edge<K>> path(VertexIndex<K> index, CompressedGraph.Rows rows, int[] distances, int source, int target){
+		final ArrayList<Edge<K>> path = new ArrayList<>();
+		if(distances[target] == Integer.MAX_VALUE) return path;
+		// every edge costs at least 1, so walking back along tight edges always ends at the source
+		for(int v = target; v != source;){
+			int prev = -1;
+			int weight = 0;
+			for(int edge = rows.offsets[v]; edge < rows.offsets[v + 1]; edge++){
+				final int u = rows.targets[edge];
+				if(distances[u] != Integer.MAX_VALUE && distances[u] + 1000 - rows.weights[edge] == distances[v] && (prev < 0 || u < prev)){
+					prev = u;
+					weight = rows.weights[edge];
+				}
+			}
+			path.add(new Edge<>(index.get(prev), index.get(v), weight));
+			v = prev;
+		}
+		Collections.reverse(path);
+		return path;
+	}
+
+}
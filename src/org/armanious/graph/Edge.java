@@ -24,6 +24,18 @@ public class Edge<K> {
 		return target;
 	}
 	
+	/**
+	 * @return the endpoint of this edge other than {@code vertex}, which must be one of its endpoints; lets
+	 * undirected graphs, which store each edge once under both endpoints, be walked from either side
+	 */
+	public K getOpposite(K vertex){
+		return src.equals(vertex) ? target : src;
+	}
+	
+	public Edge<K> reverse(){
+		return new Edge<>(target, src, weight);
+	}
+	
 	public int getWeight(){
 		return weight;
 	}
@@ -1,14 +1,14 @@
 package org.armanious.graph;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
-import java.util.PriorityQueue;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -18,49 +18,84 @@ import org.armanious.network.analysis.Pathfinder;
 public class Graph<K extends Comparable<K>> implements Pathfinder<K> {
 		
 	protected final HashMap<K, HashSet<Edge<K>>> neighbors = new HashMap<>();
-	protected final HashMap<K, HashMap<K, Path<K>>> cachedPaths = new HashMap<>();
+	protected final PathCache<K> cachedPaths = new PathCache<>();
 	protected final double maxPathCost;
 	protected final int maxPathLength;
+	protected final boolean undirected;
+	// the edges into each vertex, so that removing one only visits its own edges; undirected graphs keep every
+	// edge under both endpoints already
+	private final HashMap<K, HashSet<Edge<K>>> incoming;
 	
 	public Graph(double maxPathCost, int maxPathLength) {
+		this(maxPathCost, maxPathLength, false);
+	}
+	
+	/**
+	 * @param undirected whether every edge goes both ways; an undirected graph stores each edge once, oriented
+	 * from its smaller to its larger endpoint, in the neighbors of both endpoints, so use
+	 * {@link Edge#getOpposite(Object)} rather than {@link Edge#getTarget()} to walk it
+	 */
+	public Graph(double maxPathCost, int maxPathLength, boolean undirected) {
 		this.maxPathCost = maxPathCost;
 		this.maxPathLength = maxPathLength;
+		this.undirected = undirected;
+		this.incoming = undirected ? null : new HashMap<>();
+	}
+	
+	public boolean isUndirected(){
+		return undirected;
 	}
 	
 	public void addEdge(Edge<K> edge){
+		if(undirected && edge.getSource().compareTo(edge.getTarget()) > 0) edge = edge.reverse();
 		if(!neighbors.containsKey(edge.getSource())) neighbors.put(edge.getSource(), new HashSet<>());
 		neighbors.get(edge.getSource()).add(edge);
 		
 		// edges are added directionally, but we keep track of vertices in the graph by neighbors.keySet(),
 		// so just have an empty set of neighbors for "sink" vertices
 		if(!neighbors.containsKey(edge.getTarget())) neighbors.put(edge.getTarget(), new HashSet<>());
+		if(undirected) neighbors.get(edge.getTarget()).add(edge);
+		else incoming.computeIfAbsent(edge.getTarget(), k -> new HashSet<>()).add(edge);
 	}
 	
 	public Collection<K> getVertices(){
 		return neighbors.keySet();
 	}
+
+	public boolean containsVertex(K k){
+		return neighbors.containsKey(k);
+	}
 	
 	public Collection<Edge<K>> getNeighbors(K n){
 		assert(neighbors.containsKey(n));
 		return neighbors.get(n);
 	}
 
+	/**
+	 * Removes {@code k}, every edge to or from it and every cached path from or to it, in time proportional to
+	 * the number of those rather than to the size of the graph.
+	 */
 	public void removeVertex(K k) {
-		neighbors.remove(k);
-		for(HashSet<Edge<K>> edges : neighbors.values()){
-			final Iterator<Edge<K>> iter = edges.iterator();
-			while(iter.hasNext()){
-				if(iter.next().getTarget().equals(k)){
-					iter.remove();
-				}
+		final HashSet<Edge<K>> removed = neighbors.remove(k);
+		final HashSet<Edge<K>> into = undirected ? removed : incoming.remove(k);
+		if(removed != null && !undirected){
+			for(Edge<K> edge : removed){
+				final HashSet<Edge<K>> edges = incoming.get(edge.getTarget());
+				if(edges != null) edges.remove(edge);
+			}
+		}
+		if(into != null){
+			for(Edge<K> edge : into){
+				final HashSet<Edge<K>> edges = neighbors.get(edge.getOpposite(k));
+				if(edges != null) edges.remove(edge);
 			}
 		}
 		cachedPaths.remove(k);
-		for(HashMap<K, Path<K>> pathsByDest : cachedPaths.values()) pathsByDest.remove(k);
 	}
 	
 	public void clear(){
 		neighbors.clear();
+		if(incoming != null) incoming.clear();
 		cachedPaths.clear();
 	}
 	
@@ -77,6 +112,12 @@ public class Graph<K extends Comparable<K>> implements Pathfinder<K> {
 			throw new IllegalArgumentException("Both source and target vertices of an edge must be non-null");
 		if(src == target || src.equals(target))
 			throw new IllegalArgumentException("The source and target vertices cannot be the same");
+		if(undirected){
+			if(!bidirectional)
+				throw new IllegalArgumentException("Every edge of an undirected graph is bidirectional");
+			addEdge(src.compareTo(target) < 0 ? new Edge<>(src, target, weight) : new Edge<>(target, src, weight));
+			return;
+		}
 		addEdge(new Edge<>(src, target, weight));
 		if(bidirectional) addEdge(new Edge<>(target, src, weight));
 	}
@@ -90,55 +131,75 @@ public class Graph<K extends Comparable<K>> implements Pathfinder<K> {
 	}
 	
 	public final Path<K> dijkstras(K source, K target, Function<Edge<K>, Double> cost, double maxPathCost, int maxPathLength){
-		if(!neighbors.containsKey(source) || !neighbors.containsKey(target))
+		if(!containsVertex(source) || !containsVertex(target))
 			return new Path<>();
 		
-		final HashMap<K, Double> distances = new HashMap<>();
-		final HashMap<K, Integer> lengths = new HashMap<>();
-		final HashMap<K, Edge<K>> prev = new HashMap<>();
+		// vertices are numbered in the order they are reached so the queue can work on primitive arrays
+		final HashMap<K, Integer> ids = new HashMap<>();
+		final ArrayList<K> vertices = new ArrayList<>();
+		final ArrayList<Edge<K>> prev = new ArrayList<>();
+		double[] distances = new double[16];
+		int[] lengths = new int[16];
 
-		distances.put(source, 0d);
-		lengths.put(source, 1);
-		prev.put(source, null);
+		ids.put(source, 0);
+		vertices.add(source);
+		prev.add(null);
+		distances[0] = 0;
+		lengths[0] = 1;
 
-		final PriorityQueue<K> queue = new PriorityQueue<>(Comparator.comparing(k -> distances.get(k)));
-		queue.add(source);
+		final IndexedHeap queue = new IndexedHeap();
+		queue.ensureCapacity(1);
+		queue.update(0, 0);
 
+		int targetId = source.equals(target) ? 0 : -1;
 		while(!queue.isEmpty()){
-			final K cur = queue.poll();
-			final double currentCost = distances.get(cur);
-			final int currentLength = lengths.get(cur);
+			final int cur = queue.poll();
+			// costs are non-negative, so nothing found from here on can improve on the target
+			if(cur == targetId) break;
+			final double currentCost = distances[cur];
+			final int currentLength = lengths[cur];
 			if(currentLength == maxPathLength) continue;
-			if(getNeighbors(cur) == null){
-				System.out.println("getNeighbors() for " + cur + " returns null!! :(");
-			}
-			for(Edge<K> edge : getNeighbors(cur)){
-				final K next = edge.getTarget();
+			final K current = vertices.get(cur);
+			for(Edge<K> edge : getNeighbors(current)){
+				final K next = edge.getOpposite(current);
 				final double edgeCost = cost.apply(edge);
-				if(currentCost + edgeCost < distances.getOrDefault(next, Double.MAX_VALUE)
+				Integer nextId = ids.get(next);
+				if(currentCost + edgeCost < (nextId == null ? Double.MAX_VALUE : distances[nextId])
 						&& currentCost + edgeCost <= maxPathCost){
-					distances.put(next, currentCost + edgeCost);
-					lengths.put(next, currentLength + 1);
-					prev.put(next, edge);
-					queue.remove(next);
-					queue.add(next);
+					if(nextId == null){
+						nextId = vertices.size();
+						ids.put(next, nextId);
+						vertices.add(next);
+						prev.add(null);
+						if(nextId == distances.length){
+							distances = Arrays.copyOf(distances, nextId * 2);
+							lengths = Arrays.copyOf(lengths, nextId * 2);
+						}
+						queue.ensureCapacity(nextId + 1);
+						if(next.equals(target)) targetId = nextId;
+					}
+					distances[nextId] = currentCost + edgeCost;
+					lengths[nextId] = currentLength + 1;
+					prev.set(nextId, edge);
+					queue.update(nextId, currentCost + edgeCost);
 				}
 			}
 		}
 		
 		ArrayList<Edge<K>> path = new ArrayList<>();
-		Edge<K> cur = prev.get(target);
-		
-		while(cur != null){
-			path.add(cur);
-			cur = prev.get(cur.getSource());
+		for(int cur = targetId; cur > 0;){
+			// edges of an undirected graph may have been walked against their orientation
+			final Edge<K> edge = prev.get(cur);
+			final K to = vertices.get(cur);
+			path.add(edge.getTarget().equals(to) ? edge : edge.reverse());
+			cur = ids.get(edge.getOpposite(to));
 		}
 		Collections.reverse(path);
 		return new Path<>(path);
 	}
 	
 	public Graph<K> subgraphWithEdges(Collection<Edge<K>> edges){
-		return subgraphWithEdges(new Graph<>(maxPathCost, maxPathLength), edges);
+		return subgraphWithEdges(new Graph<>(maxPathCost, maxPathLength, undirected), edges);
 	}
 
 	public <G extends Graph<K>> G subgraphWithEdges(G g, Collection<Edge<K>> edges) {
@@ -148,13 +209,12 @@ public class Graph<K extends Comparable<K>> implements Pathfinder<K> {
 	}
 	
 	int getReductionMetric(K k) {
-		final HashSet<Edge<K>> neighbors = this.neighbors.get(k);
-		return neighbors == null ? 0 : neighbors.size();  // by the degree of the protein
+		return containsVertex(k) ? getNeighbors(k).size() : 0;  // by the degree of the protein
 		// can override in LayeredGraph so that it is the number of patients the protein is found in
 	}
 	
 	Graph<K> emptyGraph() {
-		return new Graph<>(maxPathCost, maxPathLength);
+		return new Graph<>(maxPathCost, maxPathLength, undirected);
 	}
 	
 	public Graph<K> reduceByPaths(Collection<K> endpoints, int maxVertices) {
@@ -167,7 +227,7 @@ public class Graph<K extends Comparable<K>> implements Pathfinder<K> {
 		
 		final ArrayList<K> validEndpoints = new ArrayList<>(endpoints.size());
 		for(K k : endpoints)
-			if(neighbors.containsKey(k))
+			if(containsVertex(k))
 				validEndpoints.add(k);
 		if(validEndpoints.size() < 2) return g;
 		
@@ -193,7 +253,7 @@ public class Graph<K extends Comparable<K>> implements Pathfinder<K> {
 			for(Path<K> pathToAdd : pathsToAdd) {
 				for(Edge<K> edge : pathToAdd.getEdges()) {
 					g.addEdge(edge);
-					if(bidirectional) g.addEdge(edge.getTarget(), edge.getSource(), edge.getWeight());
+					if(bidirectional && !g.undirected) g.addEdge(edge.getTarget(), edge.getSource(), edge.getWeight());
 				}
 			}
 			containedVertices.addAll(newVertices);
@@ -204,14 +264,14 @@ public class Graph<K extends Comparable<K>> implements Pathfinder<K> {
 	public double getLocalClusteringCoefficient(K vertex){
 		// implementation of
 		// https://en.wikipedia.org/wiki/Clustering_coefficient#Network_average_clustering_coefficient
-		final Set<K> neighbors = getNeighbors(vertex).stream().map(edge -> edge.getTarget()).collect(Collectors.toSet());
+		final Set<K> neighbors = getNeighbors(vertex).stream().map(edge -> edge.getOpposite(vertex)).collect(Collectors.toSet());
 		if(neighbors.size() <= 1) return 0;
 		
 		double triangles = 0;
 		
 		for(K neighbor : neighbors)
 			for(Edge<K> neighborOfNeighbor : getNeighbors(neighbor))
-				if(neighbors.contains(neighborOfNeighbor.getTarget()))
+				if(neighbors.contains(neighborOfNeighbor.getOpposite(neighbor)))
 					triangles++;
 		
 		return triangles / (neighbors.size() * (neighbors.size() - 1));
@@ -227,6 +287,43 @@ public class Graph<K extends Comparable<K>> implements Pathfinder<K> {
 		return sum / vertices.size();
 	}
 	
+	/**
+	 * Computes the cheapest path from {@code src} to {@code dst} that {@link #findPath(Comparable, Comparable)} caches.
+	 */
+	protected Path<K> computePath(K src, K dst) {
+		// TODO don't have the 1000 - weight trick hard-coded in Graph...
+		return dijkstras(src, dst, e -> 1000D - e.getWeight(), maxPathCost, maxPathLength);
+	}
+
+	/**
+	 * Computes the paths from {@code src} to each of {@code dsts}, as {@link #computePath(Comparable, Comparable)} would.
+	 */
+	protected Map<K, Path<K>> computePaths(K src, Collection<K> dsts) {
+		final HashMap<K, Path<K>> paths = new HashMap<>();
+		for(K dst : dsts)
+			paths.put(dst, computePath(src, dst));
+		return paths;
+	}
+
+	@Override
+	public Map<K, Path<K>> findPaths(K src, Collection<K> dsts) {
+		final HashMap<K, Path<K>> paths = new HashMap<>();
+		final ArrayList<K> fromSource = new ArrayList<>();
+		for(K dst : dsts){
+			if(!isReachable(src, dst)){
+				paths.put(dst, new Path<>());
+			}else if(src.compareTo(dst) > 0){
+				// searched from dst, like findPath does
+				paths.put(dst, cachedPath(dst, src));
+			}else{
+				fromSource.add(dst);
+			}
+		}
+		if(!fromSource.isEmpty())
+			paths.putAll(cachedPaths.computeIfAbsent(src, fromSource, this::computePaths));
+		return paths;
+	}
+
 	@Override
 	public Path<K> findPath(K src, K dst) {
 		if(src.compareTo(dst) > 0){
@@ -235,17 +332,17 @@ public class Graph<K extends Comparable<K>> implements Pathfinder<K> {
 			dst = tmp;
 		}
 		assert(src.compareTo(dst) <= 0);
-		
-		Path<K> path = cachedPaths.containsKey(src) ? cachedPaths.get(src).get(dst) : null;
-		if(path == null){
-			// TODO don't have the 1000 - weight trick hard-coded in Graph...
-			path = dijkstras(src, dst, e -> 1000D - e.getWeight(), maxPathCost, maxPathLength);
-			
-			HashMap<K, Path<K>> innerMap = cachedPaths.get(src);
-			if(innerMap == null) cachedPaths.put(src, innerMap = new HashMap<>());
-			innerMap.put(dst, path);
-		}
-		return path;
+		if(!isReachable(src, dst)) return new Path<>();
+		return cachedPath(src, dst);
+	}
+
+	// the path from src to dst, which must be ordered and reachable, searched for only if it is not cached yet
+	private Path<K> cachedPath(K src, K dst) {
+		final Path<K> path = cachedPaths.get(src, dst);
+		if(path != null) return path;
+		final K target = dst;
+		return cachedPaths.computeIfAbsent(src, Collections.singletonList(dst),
+				(s, d) -> Collections.singletonMap(target, computePath(s, target))).get(dst);
 	}
 
 }
@@ -55,13 +55,15 @@ public class HeatGraph<K extends Comparable<K>> extends AnnotatedGraph<K, Double
 			final Collection<Edge<K>> edges = getNeighbors(vertex);
 			int sum = 0;
 			for(Edge<K> edge : edges){
-				if(!nextHeatMap.containsKey(edge.getTarget())) nextHeatMap.put(edge.getTarget(), heatMap.get(edge.getTarget()));
+				final K neighbor = edge.getOpposite(vertex);
+				if(!nextHeatMap.containsKey(neighbor)) nextHeatMap.put(neighbor, heatMap.get(neighbor));
 				sum += edge.getWeight();
 			}
 			for(Edge<K> edge : edges){
 				final double ratio = edge.getWeight() / (double) sum;
 				final double diffused = ratio * toDiffuse;
-				nextHeatMap.put(edge.getTarget(), nextHeatMap.get(edge.getTarget()) + diffused);
+				final K neighbor = edge.getOpposite(vertex);
+				nextHeatMap.put(neighbor, nextHeatMap.get(neighbor) + diffused);
 				nextHeatMap.put(vertex, nextHeatMap.get(vertex) - diffused);
 			}
 		}
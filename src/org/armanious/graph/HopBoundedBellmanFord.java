@@ -0,0 +1,144 @@
+package org.armanious.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Bellman-Ford limited to {@code maxPathLength - 1} rounds over the rows of a {@link CompressedGraph}. After round
+ * {@code r} every vertex holds the cheapest cost of reaching it with at most {@code r} edges, so unlike Dijkstra's
+ * single label per vertex, a cheap but long label can never hide a slightly dearer short one. Each round only
+ * relaxes the edges of the vertices that improved in the round before, which keeps rounds small on sparse
+ * frontiers.
+ */
+final class HopBoundedBellmanFord {
+
+	// the three round layers take 12 bytes per vertex and round, kept by every searching thread
+	private static final long MAX_LAYER_ENTRIES = 1L << 22;
+
+	private static final ThreadLocal<HopBoundedBellmanFord> SCRATCH = ThreadLocal.withInitial(HopBoundedBellmanFord::new);
+
+	private double[] distances = new double[0];
+	private int[] stamps = new int[0];
+	// per round: the vertices that improved in it, with the predecessor and edge of their last improvement
+	private int[][] roundStamps = new int[0][];
+	private int[][] prevVertices = new int[0][];
+	private int[][] prevEdges = new int[0][];
+	private int[] frontier = new int[0];
+	private double[] frontierDistances = new double[0];
+	private int[] next = new int[0];
+	private int stamp;
+
+	private HopBoundedBellmanFord(){}
+
+	/**
+	 * @return whether searches with {@code maxPathLength} over {@code vertices} vertices stay within the memory
+	 * set aside for their round layers; callers should fall back to Dijkstra otherwise
+	 */
+	static boolean fits(int vertices, int maxPathLength){
+		return (long) Math.max(1, maxPathLength) * vertices <= MAX_LAYER_ENTRIES;
+	}
+
+	private void reset(int vertices, int rounds){
+		if(stamps.length < vertices || roundStamps.length < rounds + 1){
+			int size = Math.max(vertices, stamps.length);
+			int layers = Math.max(rounds + 1, roundStamps.length);
+			// keep only what this search needs rather than the largest of two shapes
+			if((long) size * layers > MAX_LAYER_ENTRIES){
+				size = vertices;
+				layers = rounds + 1;
+			}
+			distances = new double[size];
+			stamps = new int[size];
+			frontier = new int[size];
+			frontierDistances = new double[size];
+			next = new int[size];
+			roundStamps = new int[layers][size];
+			prevVertices = new int[layers][size];
+			prevEdges = new int[layers][size];
+			stamp = 0;
+		}
+		if(++stamp == 0){
+			Arrays.fill(stamps, 0);
+			for(int[] s : roundStamps) Arrays.fill(s, 0);
+			stamp = 1;
+		}
+	}
+
+	/**
+	 * Computes the cheapest paths with at most {@code maxPathLength} vertices and cost at most {@code maxPathCost}
+	 * from {@code source} to each of {@code targets}; unreachable targets get an empty list. Only call this when
+	 * {@link #fits(int, int)}.
+	 */
+	static <K> ArrayList<ArrayList<Edge<K>>> search(VertexIndex<K> index, CompressedGraph.Rows rows, int source, int[] targets, double maxPathCost, int maxPathLength){
+		final int rounds = Math.max(0, maxPathLength - 1);
+		final HopBoundedBellmanFord s = SCRATCH.get();
+		s.reset(index.size(), rounds);
+		final int[] offsets = rows.offsets;
+		final int[] edgeTargets = rows.targets;
+		final short[] weights = rows.weights;
+		final double[] distances = s.distances;
+		final int[] stamps = s.stamps;
+		final int stamp = s.stamp;
+
+		stamps[source] = stamp;
+		distances[source] = 0;
+		s.roundStamps[0][source] = stamp;
+		s.prevVertices[0][source] = -1;
+		int frontierSize = 0;
+		s.frontier[frontierSize] = source;
+		s.frontierDistances[frontierSize++] = 0;
+
+		for(int round = 1; round <= rounds && frontierSize > 0; round++){
+			final int[] roundStamp = s.roundStamps[round];
+			final int[] prevVertex = s.prevVertices[round];
+			final int[] prevEdge = s.prevEdges[round];
+			int nextSize = 0;
+			for(int i = 0; i < frontierSize; i++){
+				// relax from the cost the vertex had at the end of the previous round, not one improved in this round
+				final int cur = s.frontier[i];
+				final double currentCost = s.frontierDistances[i];
+				for(int edge = offsets[cur]; edge < offsets[cur + 1]; edge++){
+					final int v = edgeTargets[edge];
+					final double cost = currentCost + (1000D - weights[edge]);
+					if(cost <= maxPathCost && (stamps[v] != stamp || cost < distances[v])){
+						stamps[v] = stamp;
+						distances[v] = cost;
+						if(roundStamp[v] != stamp){
+							roundStamp[v] = stamp;
+							s.next[nextSize++] = v;
+						}
+						prevVertex[v] = cur;
+						prevEdge[v] = edge;
+					}
+				}
+			}
+			for(int i = 0; i < nextSize; i++){
+				s.frontier[i] = s.next[i];
+				s.frontierDistances[i] = distances[s.next[i]];
+			}
+			frontierSize = nextSize;
+		}
+
+		final ArrayList<ArrayList<Edge<K>>> paths = new ArrayList<>(targets.length);
+		for(int target : targets){
+			final ArrayList<Edge<K>> path = new ArrayList<>();
+			if(target >= 0 && target != source && stamps[target] == stamp){
+				// walk back from the round of the target's final cost, each vertex at the last round it improved in before
+				int v = target;
+				int round = rounds;
+				while(v != source){
+					while(s.roundStamps[round][v] != stamp) round--;
+					final int u = s.prevVertices[round][v];
+					path.add(new Edge<>(index.get(u), index.get(v), weights[s.prevEdges[round][v]]));
+					v = u;
+					round--;
+				}
+				Collections.reverse(path);
+			}
+			paths.add(path);
+		}
+		return paths;
+	}
+
+}
@@ -0,0 +1,91 @@
+package org.armanious.graph;
+
+import java.util.Arrays;
+
+/**
+ * Which pairs of a fixed set of endpoints are within a number of hops of each other in the rows of a
+ * {@link CompressedGraph}, found by breadth-first searches from 64 endpoints at a time that share one word
+ * per vertex, bit {@code j} standing for the {@code j}-th endpoint of the batch. Edges are assumed to go
+ * both ways, so the relation is symmetric.
+ */
+final class HopReachability {
+
+	final CompressedGraph.Rows rows;
+	// position of each vertex among the endpoints, or -1
+	private final int[] positions;
+	private final int words;
+	// endpoint-major: the endpoints within reach of endpoint p are the bits of reachable[p * words..(p + 1) * words)
+	private final long[] reachable;
+
+	HopReachability(CompressedGraph.Rows rows, int[] endpoints, int hops){
+		this.rows = rows;
+		final int vertices = rows.offsets.length - 1;
+		positions = new int[vertices];
+		Arrays.fill(positions, -1);
+		int count = 0;
+		final int[] distinct = new int[endpoints.length];
+		for(int endpoint : endpoints)
+			if(positions[endpoint] < 0){
+				positions[endpoint] = count;
+				distinct[count++] = endpoint;
+			}
+		words = (count + 63) >>> 6;
+		reachable = new long[count * words];
+
+		final long[] visited = new long[vertices];
+		long[] frontier = new long[vertices];
+		long[] next = new long[vertices];
+		int[] active = new int[vertices];
+		int[] touched = new int[vertices];
+		for(int word = 0; word < words; word++){
+			int activeCount = 0;
+			for(int j = 0; j < 64 && (word << 6) + j < count; j++){
+				final int v = distinct[(word << 6) + j];
+				if(visited[v] == 0) active[activeCount++] = v;
+				visited[v] |= 1L << j;
+				frontier[v] |= 1L << j;
+			}
+			for(int round = 0; round < hops && activeCount > 0; round++){
+				int touchedCount = 0;
+				for(int i = 0; i < activeCount; i++){
+					final int u = active[i];
+					final long bits = frontier[u];
+					for(int edge = rows.offsets[u]; edge < rows.offsets[u + 1]; edge++){
+						final int v = rows.targets[edge];
+						if(next[v] == 0) touched[touchedCount++] = v;
+						next[v] |= bits;
+					}
+					frontier[u] = 0;
+				}
+				// only the searches reaching a vertex for the first time go on from it
+				activeCount = 0;
+				for(int i = 0; i < touchedCount; i++){
+					final int v = touched[i];
+					final long fresh = next[v] & ~visited[v];
+					next[v] = 0;
+					if(fresh == 0) continue;
+					visited[v] |= fresh;
+					frontier[v] = fresh;
+					active[activeCount++] = v;
+				}
+			}
+			for(int i = 0; i < activeCount; i++)
+				frontier[active[i]] = 0;
+			for(int p = 0; p < count; p++)
+				reachable[p * words + word] = visited[distinct[p]];
+			Arrays.fill(visited, 0);
+		}
+	}
+
+	/**
+	 * @return whether {@code u} and {@code v} are within the hop bound of each other; true if either is not an
+	 * endpoint, as nothing is known about it
+	 */
+	boolean isReachable(int u, int v){
+		final int p = positions[u];
+		final int q = positions[v];
+		if(p < 0 || q < 0) return true;
+		return (reachable[p * words + (q >>> 6)] & (1L << (q & 63))) != 0;
+	}
+
+}
@@ -0,0 +1,237 @@
+package org.armanious.graph;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * A 2-hop labeling of an undirected {@link CompressedGraph} with edge cost {@code 1000 - weight}, built by pruned
+ * landmark labeling: every vertex stores its distance to a small set of hubs, chosen so that any two vertices within
+ * {@code maxCost} of each other share a hub on a cheapest path between them. Distance queries merge two labels
+ * and cost microseconds; each label entry also records the next vertex towards its hub, so the path itself can be
+ * read off the labels as well.
+ */
+public final class HubLabels {
+
+	private final int vertices;
+	private final int maxCost;
+	// the entries of vertex v are [offsets[v], offsets[v + 1]), ordered by hub rank
+	private final int[] offsets;
+	private final int[] hubs;
+	private final int[] distances;
+	private final int[] parents;
+
+	private HubLabels(int vertices, int maxCost, int[] offsets, int[] hubs, int[] distances, int[] parents){
+		this.vertices = vertices;
+		this.maxCost = maxCost;
+		this.offsets = offsets;
+		this.hubs = hubs;
+		this.distances = distances;
+		this.parents = parents;
+	}
+
+	/**
+	 * Labels every vertex of {@code graph} for pairs at most {@code maxCost} apart, visiting hubs in order of
+	 * decreasing degree; the Dijkstra search from each hub stops at vertices that earlier hubs already cover.
+	 */
+	public static HubLabels compute(CompressedGraph<?> graph, double maxCost){
+		final CompressedGraph.Rows rows = graph.rows();
+		final int vertices = graph.getIndex().size();
+		final int bound = (int) Math.floor(Math.min(maxCost, Integer.MAX_VALUE / 2));
+
+		final ArrayList<Integer> sorted = new ArrayList<>();
+		for(int v = 0; v < vertices; v++)
+			if(rows.offsets[v + 1] > rows.offsets[v]) sorted.add(v);
+		Collections.sort(sorted, (x, y) -> {
+			final int dx = rows.offsets[x + 1] - rows.offsets[x];
+			final int dy = rows.offsets[y + 1] - rows.offsets[y];
+			return dx != dy ? Integer.compare(dy, dx) : Integer.compare(x, y);
+		});
+		final int[] order = new int[sorted.size()];
+		for(int rank = 0; rank < order.length; rank++)
+			order[rank] = sorted.get(rank);
+
+		final int[][] labelHubs = new int[vertices][];
+		final int[][] labelDistances = new int[vertices][];
+		final int[][] labelParents = new int[vertices][];
+		final int[] sizes = new int[vertices];
+		final int[] hubDistances = new int[order.length];
+		Arrays.fill(hubDistances, Integer.MAX_VALUE);
+		final int[] tentative = new int[vertices];
+		final int[] previous = new int[vertices];
+		final int[] stamps = new int[vertices];
+		final IndexedHeap queue = new IndexedHeap();
+		queue.ensureCapacity(vertices);
+
+		for(int rank = 0; rank < order.length; rank++){
+			final int hub = order[rank];
+			for(int i = 0; i < sizes[hub]; i++)
+				hubDistances[labelHubs[hub][i]] = labelDistances[hub][i];
+
+			final int stamp = rank + 1;
+			stamps[hub] = stamp;
+			tentative[hub] = 0;
+			previous[hub] = -1;
+			queue.update(hub, 0);
+			while(!queue.isEmpty()){
+				final int v = queue.poll();
+				final int distance = tentative[v];
+				boolean covered = false;
+				for(int i = 0; i < sizes[v] && !covered; i++){
+					final int viaHub = hubDistances[labelHubs[v][i]];
+					covered = viaHub != Integer.MAX_VALUE && viaHub + labelDistances[v][i] <= distance;
+				}
+				if(covered) continue;
+
+				if(sizes[v] == (labelHubs[v] == null ? 0 : labelHubs[v].length)){
+					final int length = Math.max(4, sizes[v] * 2);
+					labelHubs[v] = labelHubs[v] == null ? new int[length] : Arrays.copyOf(labelHubs[v], length);
+					labelDistances[v] = labelDistances[v] == null ? new int[length] : Arrays.copyOf(labelDistances[v], length);
+					labelParents[v] = labelParents[v] == null ? new int[length] : Arrays.copyOf(labelParents[v], length);
+				}
+				labelHubs[v][sizes[v]] = rank;
+				labelDistances[v][sizes[v]] = distance;
+				labelParents[v][sizes[v]++] = previous[v];
+
+				// only labelled vertices are expanded, so the parent of every labelled vertex is labelled with this hub too
+				for(int edge = rows.offsets[v]; edge < rows.offsets[v + 1]; edge++){
+					final int next = rows.targets[edge];
+					final int cost = distance + (1000 - rows.weights[edge]);
+					if(cost <= bound && (stamps[next] != stamp || cost < tentative[next])){
+						stamps[next] = stamp;
+						tentative[next] = cost;
+						previous[next] = v;
+						queue.update(next, cost);
+					}
+				}
+			}
+
+			for(int i = 0; i < sizes[hub]; i++)
+				hubDistances[labelHubs[hub][i]] = Integer.MAX_VALUE;
+		}
+
+		final int[] offsets = new int[vertices + 1];
+		for(int v = 0; v < vertices; v++)
+			offsets[v + 1] = offsets[v] + sizes[v];
+		final int[] hubs = new int[offsets[vertices]];
+		final int[] distances = new int[hubs.length];
+		final int[] parents = new int[hubs.length];
+		for(int v = 0; v < vertices; v++){
+			if(sizes[v] == 0) continue;
+			System.arraycopy(labelHubs[v], 0, hubs, offsets[v], sizes[v]);
+			System.arraycopy(labelDistances[v], 0, distances, offsets[v], sizes[v]);
+			System.arraycopy(labelParents[v], 0, parents, offsets[v], sizes[v]);
+		}
+		return new HubLabels(vertices, bound, offsets, hubs, distances, parents);
+	}
+
+	public int getVertexCount(){
+		return vertices;
+	}
+
+	public double getMaxCost(){
+		return maxCost;
+	}
+
+	public int getEntryCount(){
+		return hubs.length;
+	}
+
+	/**
+	 * @return the number of bytes taken up by the labels
+	 */
+	public long getMemoryFootprint(){
+		return 4L * (offsets.length + hubs.length + distances.length + parents.length);
+	}
+
+	// the position of the entry for the hub of rank hub in the label of v
+	private int entry(int v, int hub){
+		return Arrays.binarySearch(hubs, offsets[v], offsets[v + 1], hub);
+	}
+
+	/**
+	 * @return the entries of {@code s} and {@code t} for the hub on a cheapest path between them, or null if
+	 * they are more than {@code maxCost} apart
+	 */
+	private int[] meeting(int s, int t){
+		int best = Integer.MAX_VALUE;
+		int[] meeting = null;
+		for(int i = offsets[s], j = offsets[t]; i < offsets[s + 1] && j < offsets[t + 1];){
+			if(hubs[i] < hubs[j]){
+				i++;
+			}else if(hubs[i] > hubs[j]){
+				j++;
+			}else{
+				if(distances[i] + distances[j] < best){
+					best = distances[i] + distances[j];
+					meeting = new int[]{i, j};
+				}
+				i++;
+				j++;
+			}
+		}
+		return best <= maxCost ? meeting : null;
+	}
+
+	/**
+	 * @return the cost of a cheapest path between the vertices with indices {@code s} and {@code t}, or infinity
+	 * if it is above {@code maxCost}
+	 */
+	public double distance(int s, int t){
+		if(s == t) return 0;
+		final int[] meeting = meeting(s, t);
+		return meeting == null ? Double.POSITIVE_INFINITY : distances[meeting[0]] + distances[meeting[1]];
+	}
+
+	/**
+	 * @return the edges of a cheapest path from {@code s} to {@code t}, or null if they are more than {@code maxCost}
+	 * apart; the weight of every edge follows from the distances to the hub at its ends
+	 */
+	<K> ArrayList<Edge<K>> path(VertexIndex<K> index, int s, int t){
+		final ArrayList<Edge<K>> path = new ArrayList<>();
+		if(s == t) return path;
+		final int[] meeting = meeting(s, t);
+		if(meeting == null) return null;
+		final int hub = hubs[meeting[0]];
+		for(int v = s, e = meeting[0]; parents[e] >= 0; v = parents[e], e = entry(v, hub))
+			path.add(new Edge<>(index.get(v), index.get(parents[e]), 1000 - (distances[e] - distances[entry(parents[e], hub)])));
+		final int start = path.size();
+		for(int v = t, e = meeting[1]; parents[e] >= 0; v = parents[e], e = entry(v, hub))
+			path.add(new Edge<>(index.get(parents[e]), index.get(v), 1000 - (distances[e] - distances[entry(parents[e], hub)])));
+		Collections.reverse(path.subList(start, path.size()));
+		return path;
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(vertices);
+		out.writeInt(maxCost);
+		for(int offset : offsets)
+			out.writeInt(offset);
+		for(int i = 0; i < hubs.length; i++){
+			out.writeInt(hubs[i]);
+			out.writeInt(distances[i]);
+			out.writeInt(parents[i]);
+		}
+	}
+
+	public static HubLabels read(DataInputStream in) throws IOException {
+		final int vertices = in.readInt();
+		final int maxCost = in.readInt();
+		final int[] offsets = new int[vertices + 1];
+		for(int v = 0; v <= vertices; v++)
+			offsets[v] = in.readInt();
+		final int[] hubs = new int[offsets[vertices]];
+		final int[] distances = new int[hubs.length];
+		final int[] parents = new int[hubs.length];
+		for(int i = 0; i < hubs.length; i++){
+			hubs[i] = in.readInt();
+			distances[i] = in.readInt();
+			parents[i] = in.readInt();
+		}
+		return new HubLabels(vertices, maxCost, offsets, hubs, distances, parents);
+	}
+
+}
@@ -0,0 +1,117 @@
+package org.armanious.graph;
+
+import java.util.Arrays;
+
+/**
+ * A binary min-heap of int ids keyed by doubles that tracks the position of every id, so an id can be
+ * re-keyed in O(log n) instead of the linear scan of {@link java.util.PriorityQueue#remove(Object)}.
+ * Sifting mirrors {@code PriorityQueue} step for step and {@link #update(int, double)} is a removal
+ * followed by an insertion, so ids with equal keys are polled in exactly the order a
+ * {@code PriorityQueue} would produce for the same operations, which keeps tie-breaking unchanged.
+ */
+final class IndexedHeap implements SearchQueue {
+
+	private int[] heap = new int[16];
+	private int size;
+	// by id; -1 when the id is not in the heap
+	private int[] positions = new int[0];
+	private double[] keys = new double[0];
+
+	void ensureCapacity(int ids){
+		if(ids <= positions.length) return;
+		final int oldLength = positions.length;
+		final int length = Math.max(ids, oldLength * 2);
+		positions = Arrays.copyOf(positions, length);
+		Arrays.fill(positions, oldLength, length, -1);
+		keys = Arrays.copyOf(keys, length);
+	}
+
+	@Override
+	public boolean isEmpty(){
+		return size == 0;
+	}
+
+	int size(){
+		return size;
+	}
+
+	double peekKey(){
+		return keys[heap[0]];
+	}
+
+	boolean contains(int id){
+		return positions[id] >= 0;
+	}
+
+	/**
+	 * Inserts {@code id}, or re-inserts it with the new key if it is already present.
+	 */
+	@Override
+	public void update(int id, double key){
+		if(positions[id] >= 0) removeAt(positions[id]);
+		keys[id] = key;
+		if(size == heap.length) heap = Arrays.copyOf(heap, size * 2);
+		final int i = size++;
+		if(i == 0) set(0, id);
+		else siftUp(i, id);
+	}
+
+	@Override
+	public int poll(){
+		final int result = heap[0];
+		positions[result] = -1;
+		final int s = --size;
+		if(s != 0) siftDown(0, heap[s]);
+		return result;
+	}
+
+	@Override
+	public void clear(){
+		for(int i = 0; i < size; i++)
+			positions[heap[i]] = -1;
+		size = 0;
+	}
+
+	private void set(int i, int id){
+		heap[i] = id;
+		positions[id] = i;
+	}
+
+	private void removeAt(int i){
+		positions[heap[i]] = -1;
+		final int s = --size;
+		if(s == i) return;
+		final int moved = heap[s];
+		siftDown(i, moved);
+		if(heap[i] == moved) siftUp(i, moved);
+	}
+
+	private void siftUp(int k, int id){
+		final double key = keys[id];
+		while(k > 0){
+			final int parent = (k - 1) >>> 1;
+			final int e = heap[parent];
+			if(Double.compare(key, keys[e]) >= 0) break;
+			set(k, e);
+			k = parent;
+		}
+		set(k, id);
+	}
+
+	private void siftDown(int k, int id){
+		final double key = keys[id];
+		final int half = size >>> 1;
+		while(k < half){
+			int child = (k << 1) + 1;
+			int c = heap[child];
+			final int right = child + 1;
+			if(right < size && Double.compare(keys[c], keys[heap[right]]) > 0)
+				c = heap[child = right];
+			if(Double.compare(key, keys[c]) <= 0) break;
+			set(k, c);
+			k = child;
+		}
+		set(k, id);
+	}
+
+}
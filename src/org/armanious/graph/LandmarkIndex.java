@@ -0,0 +1,139 @@
+package org.armanious.graph;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Exact distances from a few landmark vertices of an undirected {@link CompressedGraph} to every vertex, with edge
+ * cost {@code 1000 - weight}. By the triangle inequality {@code |d(L, t) - d(L, v)|} never overestimates the
+ * distance between {@code v} and {@code t}, which is what {@link PathfindingAlgorithm#ALT} uses to steer its search.
+ * A bound computed on a graph also holds for every subgraph of it.
+ */
+public final class LandmarkIndex {
+
+	private static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	private final int vertices;
+	private final int[] landmarks;
+	// vertex-major, so that the distances of one vertex to every landmark are adjacent
+	private final int[] distances;
+
+	private LandmarkIndex(int vertices, int[] landmarks, int[] distances){
+		this.vertices = vertices;
+		this.landmarks = landmarks;
+		this.distances = distances;
+	}
+
+	/**
+	 * Picks up to {@code count} landmarks, starting with the vertex of highest degree and then repeatedly the vertex
+	 * farthest from every landmark chosen so far within the first landmark's component, and computes their distances.
+	 */
+	public static LandmarkIndex compute(CompressedGraph<?> graph, int count){
+		final CompressedGraph.Rows rows = graph.rows();
+		final int vertices = graph.getIndex().size();
+		int first = -1;
+		for(int v = 0; v < vertices; v++)
+			if(rows.offsets[v + 1] > rows.offsets[v] && (first < 0 || rows.offsets[v + 1] - rows.offsets[v] > rows.offsets[first + 1] - rows.offsets[first]))
+				first = v;
+		if(first < 0 || count <= 0) return new LandmarkIndex(vertices, new int[0], new int[0]);
+
+		final int[][] tables = new int[count][];
+		final int[] landmarks = new int[count];
+		final int[] closest = new int[vertices];
+		Arrays.fill(closest, UNREACHABLE);
+		int chosen = 0;
+		for(int landmark = first; chosen < count; chosen++){
+			landmarks[chosen] = landmark;
+			tables[chosen] = distancesFrom(rows, vertices, landmark);
+			int farthest = -1;
+			for(int v = 0; v < vertices; v++){
+				if(tables[0][v] == UNREACHABLE) continue;
+				closest[v] = Math.min(closest[v], tables[chosen][v]);
+				if(closest[v] > 0 && (farthest < 0 || closest[v] > closest[farthest])) farthest = v;
+			}
+			if(farthest < 0){
+				chosen++;
+				break;
+			}
+			landmark = farthest;
+		}
+
+		final int[] distances = new int[vertices * chosen];
+		for(int l = 0; l < chosen; l++)
+			for(int v = 0; v < vertices; v++)
+				distances[v * chosen + l] = tables[l][v];
+		return new LandmarkIndex(vertices, Arrays.copyOf(landmarks, chosen), distances);
+	}
+
+	private static int[] distancesFrom(CompressedGraph.Rows rows, int vertices, int landmark){
+		final int[] distances = new int[vertices];
+		Arrays.fill(distances, UNREACHABLE);
+		final IndexedHeap queue = new IndexedHeap();
+		queue.ensureCapacity(vertices);
+		distances[landmark] = 0;
+		queue.update(landmark, 0);
+		while(!queue.isEmpty()){
+			final int cur = queue.poll();
+			for(int edge = rows.offsets[cur]; edge < rows.offsets[cur + 1]; edge++){
+				final int next = rows.targets[edge];
+				final int cost = distances[cur] + (1000 - rows.weights[edge]);
+				if(cost < distances[next]){
+					distances[next] = cost;
+					queue.update(next, cost);
+				}
+			}
+		}
+		return distances;
+	}
+
+	public int getVertexCount(){
+		return vertices;
+	}
+
+	public int getLandmarkCount(){
+		return landmarks.length;
+	}
+
+	/**
+	 * @return a lower bound on the cost of any path between {@code v} and {@code t}, infinite if a landmark
+	 * reaches only one of them
+	 */
+	double lowerBound(int v, int t){
+		final int count = landmarks.length;
+		int bound = 0;
+		for(int l = 0, i = v * count, j = t * count; l < count; l++, i++, j++){
+			final int dv = distances[i];
+			final int dt = distances[j];
+			if(dv == UNREACHABLE || dt == UNREACHABLE){
+				if(dv != dt) return Double.POSITIVE_INFINITY;
+				continue;
+			}
+			final int difference = dv > dt ? dv - dt : dt - dv;
+			if(difference > bound) bound = difference;
+		}
+		return bound;
+	}
+
+	public void write(DataOutputStream out) throws IOException {
+		out.writeInt(vertices);
+		out.writeInt(landmarks.length);
+		for(int landmark : landmarks)
+			out.writeInt(landmark);
+		for(int distance : distances)
+			out.writeInt(distance);
+	}
+
+	public static LandmarkIndex read(DataInputStream in) throws IOException {
+		final int vertices = in.readInt();
+		final int[] landmarks = new int[in.readInt()];
+		for(int l = 0; l < landmarks.length; l++)
+			landmarks[l] = in.readInt();
+		final int[] distances = new int[vertices * landmarks.length];
+		for(int i = 0; i < distances.length; i++)
+			distances[i] = in.readInt();
+		return new LandmarkIndex(vertices, landmarks, distances);
+	}
+
+}
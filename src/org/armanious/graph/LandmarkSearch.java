@@ -0,0 +1,54 @@
+package org.armanious.graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ * A* over the rows of a {@link CompressedGraph}, using the bounds of a {@link LandmarkIndex} as its heuristic.
+ * Vertices whose cost so far plus their bound exceeds {@code maxPathCost} are never queued, and a pair that no
+ * landmark connects is answered without searching at all. Like {@link PathfindingAlgorithm#DIJKSTRA}, vertices
+ * whose path already has {@code maxPathLength} vertices are not expanded.
+ */
+final class LandmarkSearch {
+
+	private LandmarkSearch(){}
+
+	static <K> ArrayList<Edge<K>> search(VertexIndex<K> index, CompressedGraph.Rows rows, LandmarkIndex landmarks, int source, int target, double maxPathCost, int maxPathLength){
+		final ArrayList<Edge<K>> path = new ArrayList<>();
+		if(source == target || landmarks.lowerBound(source, target) > maxPathCost) return path;
+
+		final SearchScratch scratch = SearchScratch.FORWARD.get();
+		scratch.reset(index.size());
+		final double[] distances = scratch.distances;
+		final int[] lengths = scratch.lengths;
+		final IndexedHeap queue = scratch.queue;
+		scratch.label(source, 0, 1, -1, -1);
+		queue.update(source, landmarks.lowerBound(source, target));
+
+		while(!queue.isEmpty()){
+			final int cur = queue.poll();
+			if(cur == target) break;
+			final double currentCost = distances[cur];
+			final int currentLength = lengths[cur];
+			if(currentLength == maxPathLength) continue;
+			for(int edge = rows.offsets[cur]; edge < rows.offsets[cur + 1]; edge++){
+				final int next = rows.targets[edge];
+				final double cost = currentCost + (1000D - rows.weights[edge]);
+				if(cost > maxPathCost || (scratch.isLabelled(next) && cost >= distances[next])) continue;
+				final double estimate = cost + landmarks.lowerBound(next, target);
+				if(estimate > maxPathCost) continue;
+				scratch.label(next, cost, currentLength + 1, cur, edge);
+				queue.update(next, estimate);
+			}
+		}
+		queue.clear();
+
+		if(scratch.isLabelled(target)){
+			for(int v = target; scratch.prevVertices[v] >= 0; v = scratch.prevVertices[v])
+				path.add(new Edge<>(index.get(scratch.prevVertices[v]), index.get(v), rows.weights[scratch.prevEdges[v]]));
+			Collections.reverse(path);
+		}
+		return path;
+	}
+
+}
@@ -18,7 +18,11 @@ public final class LayeredGraph<K extends Comparable<K>> extends AnnotatedGraph<
 	private double maxCount = 0;
 
 	public LayeredGraph(Type type, double maxPathCost, int maxPathLength){
-		super(0D, maxPathCost, maxPathLength);
+		this(type, maxPathCost, maxPathLength, false);
+	}
+	
+	public LayeredGraph(Type type, double maxPathCost, int maxPathLength, boolean undirected){
+		super(0D, maxPathCost, maxPathLength, undirected);
 		this.type = type;
 	}
 	
@@ -42,7 +46,7 @@ public final class LayeredGraph<K extends Comparable<K>> extends AnnotatedGraph<
 			throw new UnsupportedOperationException("Cannot layer LayeredGraphs");
 		for(K k : graph.getVertices())
 			for(Edge<K> e : graph.getNeighbors(k))
-				addEdgeNoIncrement(e);
+				addEdgeNoIncrement(undirected || e.getSource().equals(k) ? e : e.reverse());
 		for(K k : graph.getVertices()){
 			setCount(k, getCount(k) + 1);
 		}
@@ -62,7 +66,7 @@ public final class LayeredGraph<K extends Comparable<K>> extends AnnotatedGraph<
 		assert(type == Type.GROUP1 || type == Type.GROUP2);
 		assert(lg.type == Type.GROUP1 || lg.type == Type.GROUP2);
 		assert(type != lg.type);
-		final LayeredGraph<K> result = new LayeredGraph<>(type == Type.GROUP1 ? Type.GROUP1_MINUS_GROUP2 : Type.GROUP2_MINUS_GROUP1, maxPathCost, maxPathLength);
+		final LayeredGraph<K> result = new LayeredGraph<>(type == Type.GROUP1 ? Type.GROUP1_MINUS_GROUP2 : Type.GROUP2_MINUS_GROUP1, maxPathCost, maxPathLength, undirected);
 		final HashSet<K> toRetain = new HashSet<>();
 		
 		for(K vertex : getVertices())
@@ -112,7 +116,7 @@ public final class LayeredGraph<K extends Comparable<K>> extends AnnotatedGraph<
 	
 	@Override
 	Graph<K> emptyGraph() {
-		return new LayeredGraph<>(type, maxCount, maxPathLength);
+		return new LayeredGraph<>(type, maxCount, maxPathLength, undirected);
 	}
 
 }
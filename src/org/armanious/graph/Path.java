@@ -9,7 +9,10 @@ import java.util.Set;
 
 public class Path<K> {
 	
-	private final ArrayList<Edge<K>> path;
+	private ArrayList<Edge<K>> path;
+	// when the path is a view of a node of a shared tree, path is null until it is modified
+	private PathTree<K> tree;
+	private final int node;
 	
 	public Path(){
 		this(Collections.emptyList());
@@ -17,18 +20,33 @@ public class Path<K> {
 	
 	public Path(Collection<Edge<K>> path){
 		this.path = new ArrayList<>(path);
+		this.node = -1;
+	}
+	
+	Path(PathTree<K> tree, int node){
+		this.tree = tree;
+		this.node = node;
+	}
+	
+	private List<Edge<K>> edges(){
+		return path != null ? path : tree.edges(node);
 	}
 	
 	public void addEdge(Edge<K> edge){
+		if(path == null){
+			path = new ArrayList<>(tree.edges(node));
+			tree = null;
+		}
 		assert(!path.contains(edge));
 		path.add(edge);
 	}
 	
 	public List<Edge<K>> getEdges() {
-		return new ArrayList<>(path);
+		return path != null ? new ArrayList<>(path) : tree.edges(node);
 	}
 	
 	public List<K> getVertices(){
+		if(path == null) return tree.vertices(node);
 		if(path.size() == 0) return Collections.emptyList();
 		final ArrayList<K> vertices = new ArrayList<>(path.size() > 0 ? path.size() + 1 : 0);
 		vertices.add(path.get(0).getSource());
@@ -37,18 +55,18 @@ public class Path<K> {
 	}
 	
 	public Set<K> getUniqueNodes(){
-		if(path.size() == 0) return Collections.emptySet();
+		if(path != null && path.size() == 0) return Collections.emptySet();
 		return new HashSet<>(getVertices());
 	}
 	
 	@SuppressWarnings("unchecked")
 	public boolean equals(Object o){
-		return (o instanceof Path) && ((Path<K>)o).path.equals(path);
+		return (o instanceof Path) && ((Path<K>)o).edges().equals(edges());
 	}
 	
 	@Override
 	public int hashCode(){
-		return path.hashCode();
+		return edges().hashCode();
 	}
 
 }
@@ -0,0 +1,123 @@
+package org.armanious.graph;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * The paths a {@link Graph} has found, by source and then destination. It is safe to use from several threads:
+ * the first thread to ask for a pair computes it, and any other thread asking for the same pair meanwhile waits
+ * for that result instead of computing it again.
+ */
+public final class PathCache<K> {
+
+	// each entry is either a Path or, while it is being computed, the future of the batch computing it
+	private final ConcurrentHashMap<K, ConcurrentHashMap<K, Object>> paths = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the path cached for {@code src} and {@code dst}, or null if there is none yet
+	 */
+	@SuppressWarnings("unchecked")
+	public Path<K> get(K src, K dst){
+		final Map<K, Object> bySource = paths.get(src);
+		final Object entry = bySource == null ? null : bySource.get(dst);
+		return entry instanceof Path ? (Path<K>) entry : null;
+	}
+
+	public void put(K src, K dst, Path<K> path){
+		paths.computeIfAbsent(src, k -> new ConcurrentHashMap<>()).put(dst, path);
+	}
+
+	/**
+	 * Returns the paths from {@code src} to each of {@code dsts}, calling {@code compute} once with every
+	 * destination that is neither cached nor being computed by another thread.
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<K, Path<K>> computeIfAbsent(K src, Collection<K> dsts, BiFunction<K, Collection<K>, Map<K, Path<K>>> compute){
+		final ConcurrentHashMap<K, Object> bySource = paths.computeIfAbsent(src, k -> new ConcurrentHashMap<>());
+		final HashMap<K, Path<K>> result = new HashMap<>();
+		final HashMap<K, CompletableFuture<Map<K, Path<K>>>> pending = new HashMap<>();
+		final CompletableFuture<Map<K, Path<K>>> batch = new CompletableFuture<>();
+		final ArrayList<K> claimed = new ArrayList<>();
+		for(K dst : dsts){
+			final Object entry = bySource.putIfAbsent(dst, batch);
+			if(entry == null) claimed.add(dst);
+			else if(entry instanceof Path) result.put(dst, (Path<K>) entry);
+			else if(entry != batch) pending.put(dst, (CompletableFuture<Map<K, Path<K>>>) entry);
+		}
+
+		if(!claimed.isEmpty()){
+			final Map<K, Path<K>> computed;
+			try {
+				computed = compute.apply(src, claimed);
+			} catch (RuntimeException | Error e) {
+				for(K dst : claimed) bySource.remove(dst, batch);
+				batch.completeExceptionally(e);
+				throw e;
+			}
+			for(K dst : claimed) bySource.replace(dst, batch, computed.get(dst));
+			batch.complete(computed);
+			result.putAll(computed);
+		}
+		for(Map.Entry<K, CompletableFuture<Map<K, Path<K>>>> entry : pending.entrySet())
+			result.put(entry.getKey(), entry.getValue().join().get(entry.getKey()));
+		return result;
+	}
+
+	/**
+	 * Forgets every path from, to or through {@code vertex}, which must no longer be part of the graph.
+	 */
+	public void remove(K vertex){
+		removeAll(Collections.singleton(vertex));
+	}
+
+	/**
+	 * Forgets every path from, to or through any of {@code vertices}, which must no longer be part of the graph.
+	 * Removal is rare, so nothing is indexed for it: this visits every cached path once, however many vertices
+	 * are removed, which keeps caching a path free of any extra work.
+	 */
+	@SuppressWarnings("unchecked")
+	public void removeAll(Collection<K> vertices){
+		final Set<K> removed = vertices instanceof Set ? (Set<K>) vertices : new HashSet<>(vertices);
+		if(removed.isEmpty()) return;
+		for(K vertex : removed)
+			paths.remove(vertex);
+		paths.forEach((src, bySource) -> bySource.forEach((dst, entry) -> {
+			if(removed.contains(dst) || entry instanceof Path && runsThrough((Path<K>) entry, removed))
+				bySource.remove(dst, entry);
+		}));
+	}
+
+	private boolean runsThrough(Path<K> path, Set<K> vertices){
+		for(K vertex : path.getVertices())
+			if(vertices.contains(vertex)) return true;
+		return false;
+	}
+
+	public void clear(){
+		paths.clear();
+	}
+	/**
+	 * @return a copy of every path computed so far, by source and then destination
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<K, Map<K, Path<K>>> toMap(){
+		final HashMap<K, Map<K, Path<K>>> copy = new HashMap<>();
+		paths.forEach((src, bySource) -> {
+			final HashMap<K, Path<K>> byDestination = new HashMap<>();
+			bySource.forEach((dst, entry) -> {
+				if(entry instanceof Path) byDestination.put(dst, (Path<K>) entry);
+			});
+			if(!byDestination.isEmpty()) copy.put(src, byDestination);
+		});
+		return copy;
+	}
+
+}
@@ -0,0 +1,72 @@
+package org.armanious.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The part of a shortest-path tree from one source that the paths found by a search run through, as parent
+ * pointers. Paths to different destinations of the same search share their common prefix here, and each
+ * {@link Path} taken from the tree is only a view of one node.
+ */
+final class PathTree<K> {
+
+	private final VertexIndex<K> index;
+	// node 0 is the source
+	private int[] vertices = new int[8];
+	private int[] parents = new int[8];
+	private short[] weights = new short[8];
+	private int size;
+
+	PathTree(VertexIndex<K> index, int source){
+		this.index = index;
+		vertices[0] = source;
+		parents[0] = -1;
+		size = 1;
+	}
+
+	/**
+	 * Adds the edge from {@code parent}'s vertex to {@code vertex} and returns the new node.
+	 */
+	int add(int parent, int vertex, short weight){
+		if(size == vertices.length){
+			vertices = Arrays.copyOf(vertices, size * 2);
+			parents = Arrays.copyOf(parents, size * 2);
+			weights = Arrays.copyOf(weights, size * 2);
+		}
+		vertices[size] = vertex;
+		parents[size] = parent;
+		weights[size] = weight;
+		return size++;
+	}
+
+	void trimToSize(){
+		vertices = Arrays.copyOf(vertices, size);
+		parents = Arrays.copyOf(parents, size);
+		weights = Arrays.copyOf(weights, size);
+	}
+
+	/**
+	 * @return the edges from the source to {@code node}
+	 */
+	List<Edge<K>> edges(int node){
+		final ArrayList<Edge<K>> edges = new ArrayList<>();
+		for(int n = node; parents[n] >= 0; n = parents[n])
+			edges.add(new Edge<>(index.get(vertices[parents[n]]), index.get(vertices[n]), weights[n]));
+		Collections.reverse(edges);
+		return edges;
+	}
+
+	/**
+	 * @return the vertices from the source to {@code node}
+	 */
+	List<K> vertices(int node){
+		final ArrayList<K> path = new ArrayList<>();
+		for(int n = node; n >= 0; n = parents[n])
+			path.add(index.get(vertices[n]));
+		Collections.reverse(path);
+		return path;
+	}
+
+}
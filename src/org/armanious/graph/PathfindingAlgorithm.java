@@ -0,0 +1,59 @@
+package org.armanious.graph;
+
+/**
+ * The search a {@link CompressedGraph} uses to answer path queries.
+ */
+public enum PathfindingAlgorithm {
+
+	/**
+	 * Dijkstra's algorithm from the source, skipping vertices whose path already has {@code maxPathLength} vertices.
+	 */
+	DIJKSTRA,
+
+	/**
+	 * Dijkstra's algorithm from both endpoints at once, meeting in the middle; for undirected graphs only.
+	 * Paths have the same cost as {@link #DIJKSTRA}'s when {@code maxPathLength} is not limiting, but ties
+	 * between equal-cost paths may be broken differently.
+	 */
+	BIDIRECTIONAL_DIJKSTRA,
+
+	/**
+	 * Bellman-Ford limited to {@code maxPathLength - 1} rounds; always finds the cheapest path with at most
+	 * {@code maxPathLength} vertices, which {@link #DIJKSTRA} can miss when a cheaper but longer path reaches
+	 * an intermediate vertex first. Ties between equal-cost paths may be broken differently. Its scratch space
+	 * grows with {@code maxPathLength} times the number of vertices, so beyond about four million of those it
+	 * runs {@link #DIJKSTRA} instead.
+	 */
+	HOP_BOUNDED_BELLMAN_FORD,
+
+	/**
+	 * A* guided by precomputed landmark distances (see {@link LandmarkIndex}); for undirected graphs only.
+	 * Skips vertices that cannot lie on a path within {@code maxPathCost}, and otherwise behaves like {@link #DIJKSTRA}
+	 * with respect to {@code maxPathLength}. Ties between equal-cost paths may be broken differently.
+	 */
+	ALT,
+
+	/**
+	 * Reads the cheapest path off precomputed {@link HubLabels}, so pairs more than {@code maxPathCost} apart are
+	 * rejected without any search; falls back to {@link #DIJKSTRA} when that path has more than {@code maxPathLength}
+	 * vertices. For undirected graphs only. Ties between equal-cost paths may be broken differently.
+	 */
+	HUB_LABELS,
+
+	/**
+	 * {@link #DIJKSTRA}, except that searches from sources with large neighborhoods run as parallel delta-stepping on
+	 * the common fork-join pool; when the cheapest path it finds has more than {@code maxPathLength} vertices, the
+	 * destination is searched for with {@link #DIJKSTRA} instead. Ties between equal-cost paths may be broken
+	 * differently.
+	 */
+	DELTA_STEPPING,
+
+	/**
+	 * {@link #DIJKSTRA}, settling vertices from a bucket queue (Dial's algorithm) rather than a binary heap when
+	 * every edge cost is an integer between 0 and 1000. Paths have the same cost as {@link #DIJKSTRA}'s when
+	 * {@code maxPathLength} is not limiting, but vertices of equal cost are settled in a different order, so ties
+	 * between equal-cost paths may be broken differently.
+	 */
+	DIAL;
+
+}
@@ -0,0 +1,19 @@
+package org.armanious.graph;
+
+/**
+ * The priority queue of ids a search over a {@link CompressedGraph} settles vertices from.
+ */
+interface SearchQueue {
+
+	boolean isEmpty();
+
+	/**
+	 * Inserts {@code id}, or re-keys it if it is already present.
+	 */
+	void update(int id, double key);
+
+	int poll();
+
+	void clear();
+
+}
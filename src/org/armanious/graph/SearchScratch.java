@@ -0,0 +1,76 @@
+package org.armanious.graph;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread state of a search over a {@link CompressedGraph}, reused across searches and graphs.
+ * Entries are only valid where {@code stamps[v] == stamp}, so starting a new search does not clear anything.
+ */
+final class SearchScratch {
+
+	static final ThreadLocal<SearchScratch> FORWARD = ThreadLocal.withInitial(SearchScratch::new);
+	static final ThreadLocal<SearchScratch> BACKWARD = ThreadLocal.withInitial(SearchScratch::new);
+
+	double[] distances = new double[0];
+	int[] lengths = new int[0];
+	int[] prevVertices = new int[0];
+	int[] prevEdges = new int[0];
+	int[] stamps = new int[0];
+	int[] destinationStamps = new int[0];
+	// the node of each vertex in the tree of the paths found, where nodeStamps[v] == stamp
+	int[] nodes = new int[0];
+	int[] nodeStamps = new int[0];
+	int stamp;
+	final IndexedHeap queue = new IndexedHeap();
+	final BucketQueue buckets = new BucketQueue();
+
+	/**
+	 * Starts a new search over {@code vertices} vertices.
+	 */
+	void reset(int vertices){
+		if(stamps.length < vertices){
+			distances = new double[vertices];
+			lengths = new int[vertices];
+			prevVertices = new int[vertices];
+			prevEdges = new int[vertices];
+			stamps = new int[vertices];
+			destinationStamps = new int[vertices];
+			nodes = new int[vertices];
+			nodeStamps = new int[vertices];
+			stamp = 0;
+		}
+		if(++stamp == 0){
+			Arrays.fill(stamps, 0);
+			Arrays.fill(destinationStamps, 0);
+			Arrays.fill(nodeStamps, 0);
+			stamp = 1;
+		}
+		queue.clear();
+		queue.ensureCapacity(vertices);
+		buckets.clear();
+	}
+
+	/**
+	 * @return the bucket queue when every edge costs an integer between 0 and {@code maxEdgeCost}, sized for
+	 * keys up to {@code maxPathCost}, otherwise the binary heap
+	 */
+	SearchQueue queue(int maxEdgeCost, double maxPathCost){
+		if(maxEdgeCost < 0) return queue;
+		// keys never exceed maxPathCost, so with a low bound every key gets its own bucket
+		buckets.ensureCapacity(stamps.length, (int) Math.max(1, Math.min(maxEdgeCost, Math.floor(maxPathCost)) + 1));
+		return buckets;
+	}
+
+	boolean isLabelled(int v){
+		return stamps[v] == stamp;
+	}
+
+	void label(int v, double distance, int length, int prevVertex, int prevEdge){
+		stamps[v] = stamp;
+		distances[v] = distance;
+		lengths[v] = length;
+		prevVertices[v] = prevVertex;
+		prevEdges[v] = prevEdge;
+	}
+
+}
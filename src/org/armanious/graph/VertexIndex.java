@@ -0,0 +1,18 @@
+package org.armanious.graph;
+
+/**
+ * A bijection between the vertices of a graph and the integers [0, size()), used by graphs that keep
+ * their adjacency in primitive arrays.
+ */
+public interface VertexIndex<K> {
+
+	int size();
+
+	K get(int index);
+
+	/**
+	 * @return the index of {@code vertex}, or -1 if it is not indexed
+	 */
+	int indexOf(K vertex);
+
+}
@@ -15,6 +15,9 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import org.armanious.graph.PathfindingAlgorithm;
+import org.armanious.network.analysis.Interactome;
+
 public final class Configuration {
 	
 	public static boolean GETTING_DEFAULT_OPTIONS = false;
@@ -30,6 +33,7 @@ public final class Configuration {
 
 		public final String proteinInteractomeFile;
 		public final String proteinAliasesFile;
+		public final String interactomeSnapshotFile;
 		
 		public final String stringDatabaseVersion;
 
@@ -100,8 +104,11 @@ public final class Configuration {
 					new File(System.getProperty("user.dir"), "9606.protein.links.v" + stringDatabaseVersion + ".txt.gz").getPath());
 			proteinAliasesFile = map.getOrDefault("proteinAliasesFile",
 					new File(System.getProperty("user.dir"), "9606.protein.aliases.v" + stringDatabaseVersion + ".txt.gz").getPath());
+			interactomeSnapshotFile = map.getOrDefault("interactomeSnapshotFile",
+					new File(System.getProperty("user.dir"), "9606.protein.snapshot.v" + stringDatabaseVersion + ".bin").getPath());
 			
-			if(GETTING_DEFAULT_OPTIONS) return;
+			// a current snapshot is sufficient on its own; only fetch the STRING files if it has to be (re)built
+			if(GETTING_DEFAULT_OPTIONS || Interactome.isSnapshotUsable(interactomeSnapshotFile, stringDatabaseVersion)) return;
 			try {
 				if(!new File(proteinInteractomeFile).exists())
 					downloadURLToFile("https://stringdb-static.org/download/protein.links.v" + stringDatabaseVersion + "/9606.protein.links.v" + stringDatabaseVersion + ".txt.gz", proteinInteractomeFile);
@@ -124,9 +131,15 @@ public final class Configuration {
 		public final boolean calculateGraphDifferences;
 
 		public final double minInteractomeConfidence;
+		public final boolean lazyInteractomeLoading;
+		public final boolean kernelizeInteractome;
+		public final boolean indexReachability;
 
 		public final double maxPathCost;
 		public final int maxPathLength;
+		public final PathfindingAlgorithm pathfindingAlgorithm;
+		public final int landmarkCount;
+		public final int hubProteinCount;
 
 		//public final boolean layoutAndRender;
 		public final double fractionOfVerticesToRender;
@@ -139,9 +152,15 @@ public final class Configuration {
 			calculateGraphDifferences = Boolean.parseBoolean(map.getOrDefault("calculateGraphDifferences", "true"));
 
 			minInteractomeConfidence = Double.parseDouble(map.getOrDefault("minInteractomeConfidence", "0"));
+			lazyInteractomeLoading = Boolean.parseBoolean(map.getOrDefault("lazyInteractomeLoading", "false"));
+			kernelizeInteractome = Boolean.parseBoolean(map.getOrDefault("kernelizeInteractome", "false"));
+			indexReachability = Boolean.parseBoolean(map.getOrDefault("indexReachability", "false"));
 
 			maxPathCost = Double.parseDouble(map.getOrDefault("maxPathCost", "200"));
 			maxPathLength = Integer.parseInt(map.getOrDefault("maxPathLength", "5"));
+			pathfindingAlgorithm = PathfindingAlgorithm.valueOf(map.getOrDefault("pathfindingAlgorithm", "DIJKSTRA").toUpperCase());
+			landmarkCount = Integer.parseInt(map.getOrDefault("landmarkCount", "16"));
+			hubProteinCount = Integer.parseInt(map.getOrDefault("hubProteinCount", "0"));
 
 			//layoutAndRender = Boolean.parseBoolean(map.getOrDefault("layoutAndRender", "true"));
 			fractionOfVerticesToRender = Double.parseDouble(map.getOrDefault("fractionOfVerticesToRender", "1"));
@@ -0,0 +1,93 @@
+package org.armanious.network.analysis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * An open-addressing hash map with string keys that can be queried directly with a range of bytes,
+ * so that identifiers read from a file can be resolved without first creating a {@code String}.
+ */
+final class ByteKeyMap<V> {
+
+	private byte[][] keys;
+	private Object[] values;
+	private int size;
+
+	ByteKeyMap(int expectedSize){
+		int capacity = 16;
+		while(capacity < expectedSize * 2) capacity <<= 1;
+		keys = new byte[capacity][];
+		values = new Object[capacity];
+	}
+
+	static <V> ByteKeyMap<V> of(Map<String, V> map){
+		final ByteKeyMap<V> byteKeyMap = new ByteKeyMap<>(map.size());
+		for(Map.Entry<String, V> entry : map.entrySet())
+			byteKeyMap.put(entry.getKey(), entry.getValue());
+		return byteKeyMap;
+	}
+
+	int size(){
+		return size;
+	}
+
+	private static int hash(byte[] bytes, int offset, int length){
+		int h = 0;
+		for(int i = offset; i < offset + length; i++)
+			h = 31 * h + bytes[i];
+		return h ^ (h >>> 16);
+	}
+
+	private static boolean matches(byte[] key, byte[] bytes, int offset, int length){
+		if(key.length != length) return false;
+		for(int i = 0; i < length; i++)
+			if(key[i] != bytes[offset + i])
+				return false;
+		return true;
+	}
+
+	void put(String key, V value){
+		if((size + 1) * 2 > keys.length) resize();
+		final byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+		final int mask = keys.length - 1;
+		int slot = hash(bytes, 0, bytes.length) & mask;
+		while(keys[slot] != null){
+			if(matches(keys[slot], bytes, 0, bytes.length)){
+				values[slot] = value;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = bytes;
+		values[slot] = value;
+		size++;
+	}
+
+	@SuppressWarnings("unchecked")
+	V get(byte[] bytes, int offset, int length){
+		final int mask = keys.length - 1;
+		int slot = hash(bytes, offset, length) & mask;
+		while(keys[slot] != null){
+			if(matches(keys[slot], bytes, offset, length))
+				return (V) values[slot];
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	private void resize(){
+		final byte[][] oldKeys = keys;
+		final Object[] oldValues = values;
+		keys = new byte[oldKeys.length * 2][];
+		values = new Object[oldValues.length * 2];
+		final int mask = keys.length - 1;
+		for(int i = 0; i < oldKeys.length; i++){
+			if(oldKeys[i] == null) continue;
+			int slot = hash(oldKeys[i], 0, oldKeys[i].length) & mask;
+			while(keys[slot] != null) slot = (slot + 1) & mask;
+			keys[slot] = oldKeys[i];
+			values[slot] = oldValues[i];
+		}
+	}
+
+}
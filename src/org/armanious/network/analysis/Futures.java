@@ -0,0 +1,58 @@
+package org.armanious.network.analysis;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Helpers for expressing blocking I/O steps as {@link CompletableFuture}s. Tasks run on their own daemon
+ * threads rather than the common pool, which may have a single worker and would then run them one at a time.
+ */
+final class Futures {
+
+	private Futures(){}
+
+	interface IOSupplier<T> {
+		T get() throws IOException;
+	}
+
+	private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(r -> {
+		final Thread t = new Thread(r, "Futures");
+		t.setDaemon(true);
+		return t;
+	});
+
+	static <T> CompletableFuture<T> supplyAsync(IOSupplier<T> supplier){
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return supplier.get();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, EXECUTOR);
+	}
+
+	static <T, R> CompletableFuture<R> thenApplyAsync(CompletableFuture<T> future, Function<T, R> function){
+		return future.thenApplyAsync(function, EXECUTOR);
+	}
+
+	/**
+	 * Waits for {@code future} and rethrows whatever it failed with as it was originally thrown.
+	 */
+	static <T> T join(CompletableFuture<T> future) throws IOException {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			final Throwable cause = e.getCause();
+			if(cause instanceof UncheckedIOException) throw ((UncheckedIOException) cause).getCause();
+			if(cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if(cause instanceof Error) throw (Error) cause;
+			throw e;
+		}
+	}
+
+}
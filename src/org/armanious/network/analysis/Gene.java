@@ -1,16 +1,14 @@
 package org.armanious.network.analysis;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.zip.GZIPInputStream;
 
 import org.armanious.Tuple;
 
@@ -57,30 +55,39 @@ public class Gene {
 				&& getProteins().equals(gene.getProteins());
 	}
 
+	private static final byte[] HUGO_SOURCE = "BioMart_HUGO".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] KEGG_SOURCE = "BLAST_KEGG_NAME".getBytes(StandardCharsets.US_ASCII);
+
+	// {protein, alias} pairs of the alias lines that matter, per source
+	private static final class AliasLines {
+		final ArrayList<String[]> symbols = new ArrayList<>();
+		final ArrayList<String[]> synonyms = new ArrayList<>();
+	}
+
 	public static Tuple<Map<String, Gene>, Map<String, Protein>> loadGenes(String proteinAliasesFile) throws IOException {
-		InputStream in = new FileInputStream(proteinAliasesFile);
-		if(proteinAliasesFile.endsWith(".gz"))
-			in = new GZIPInputStream(in);
-		final BufferedReader br = new BufferedReader(new InputStreamReader(in));
-		String s;
+		// workers only pick out the relevant alias lines; the maps are built in file order afterwards
+		final List<AliasLines> chunks = ParallelLineParser.parse(proteinAliasesFile, AliasLines::new, (line, aliases) -> {
+			if(line.isEmpty() || line.byteAt(0) == '#' || line.split('\t') < 3) return;
+			if(line.fieldContains(2, HUGO_SOURCE))
+				aliases.symbols.add(new String[]{line.getField(0), line.getField(1)});
+			else if(line.fieldContains(2, KEGG_SOURCE))
+				aliases.synonyms.add(new String[]{line.getField(0), line.getField(1)});
+		});
 		final Map<String, Gene> geneMap = new HashMap<>();
 		final Map<String, Protein> proteinMap = new HashMap<>();
 		final Map<String, String> synonyms = new HashMap<>();
-		while((s = br.readLine()) != null){
-			if(s.startsWith("#")) continue;
-			final String[] parts = s.split("\t");
-			if(parts[2].contains("BioMart_HUGO")){
+		for(AliasLines chunk : chunks){
+			for(String[] parts : chunk.symbols){
 				final String symbol = parts[1];
 				final String protein = parts[0];
 				Gene gene = geneMap.get(symbol);
 				if(gene == null)
 					geneMap.put(symbol, gene = new Gene(symbol));
 				proteinMap.put(protein, gene.addProtein(protein));
-			}else if(parts[2].contains("BLAST_KEGG_NAME")) {
-				synonyms.put(parts[1], parts[0]);
 			}
+			for(String[] parts : chunk.synonyms)
+				synonyms.put(parts[1], parts[0]);
 		}
-		br.close();
 		for(String synonym : synonyms.keySet()) {
 			final Protein protein = proteinMap.get(synonyms.get(synonym));
 			if(protein != null && !geneMap.containsKey(synonym)) {
@@ -0,0 +1,87 @@
+package org.armanious.network.analysis;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.armanious.Tuple;
+import org.armanious.network.Configuration;
+
+/**
+ * The genes, proteins and interactome of a STRING release, loaded once per JVM and shared by every analysis
+ * run with the same protein aliases file and STRING version.
+ */
+public final class GeneDatabase {
+
+	private static final Map<String, GeneDatabase> DATABASES = new HashMap<>();
+
+	private final String key;
+	private final CompletableFuture<Tuple<Map<String, Gene>, Map<String, Protein>>> aliases = new CompletableFuture<>();
+	private final CompletableFuture<Interactome> interactome;
+
+	private GeneDatabase(String key, Configuration c){
+		this.key = key;
+		this.interactome = Interactome.loadAsync(c.generalConfig.interactomeSnapshotFile, c.generalConfig.proteinAliasesFile,
+				c.generalConfig.proteinInteractomeFile, c.generalConfig.stringDatabaseVersion, aliases);
+		// a failed load must not be handed out again; the next request retries it
+		interactome.whenComplete((i, e) -> {
+			if(e != null) evict(this);
+		});
+	}
+
+	private static String getKey(Configuration c){
+		return new File(c.generalConfig.proteinAliasesFile).getAbsolutePath() + File.pathSeparator + c.generalConfig.stringDatabaseVersion;
+	}
+
+	/**
+	 * Returns the database for the aliases file and STRING version of {@code c}, starting to load it in the
+	 * background if this is the first request for it.
+	 */
+	public static GeneDatabase get(Configuration c){
+		final String key = getKey(c);
+		synchronized(DATABASES){
+			GeneDatabase database = DATABASES.get(key);
+			if(database == null) DATABASES.put(key, database = new GeneDatabase(key, c));
+			return database;
+		}
+	}
+
+	private static void evict(GeneDatabase database){
+		synchronized(DATABASES){
+			DATABASES.remove(database.key, database);
+		}
+	}
+
+	public static void clear(){
+		synchronized(DATABASES){
+			DATABASES.clear();
+		}
+	}
+
+	CompletableFuture<Tuple<Map<String, Gene>, Map<String, Protein>>> getAliasesAsync(){
+		return aliases;
+	}
+
+	CompletableFuture<Interactome> getInteractomeAsync(){
+		return interactome;
+	}
+
+	public Map<String, Gene> getGeneMap() throws IOException {
+		return Futures.join(aliases).val1();
+	}
+
+	public Map<String, Protein> getProteinMap() throws IOException {
+		return Futures.join(aliases).val2();
+	}
+
+	public Gene getGene(String symbol) throws IOException {
+		return getGeneMap().get(symbol);
+	}
+
+	public Interactome getInteractome() throws IOException {
+		return Futures.join(interactome);
+	}
+
+}
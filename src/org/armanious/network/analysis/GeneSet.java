@@ -1,7 +1,10 @@
 package org.armanious.network.analysis;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 
@@ -61,9 +64,19 @@ public class GeneSet {
 	public boolean computePairwisePathsAndGraph(Pathfinder<Protein> pathfinder){
 		graph.clear();
 		final Protein[] endpoints = proteinSet.toArray(new Protein[proteinSet.size()]);
+		pathfinder.ensureLoaded(proteinSet);
+		// one search per source, towards every endpoint that sorts after it, the way findPath orients each pair
+		final Protein[] sorted = endpoints.clone();
+		Arrays.sort(sorted);
+		final Map<Protein, Map<Protein, Path<Protein>>> paths = new HashMap<>();
+		// findPaths answers pairs the pathfinder rules out with an empty path, without searching
+		for(int i = 0; i < sorted.length - 1; i++)
+			paths.put(sorted[i], pathfinder.findPaths(sorted[i], Arrays.asList(sorted).subList(i + 1, sorted.length)));
 		for(int i = 0; i < endpoints.length - 1; i++){
 			for(int j = i + 1; j < endpoints.length; j++){
-				final Path<Protein> path = pathfinder.findPath(endpoints[i], endpoints[j]);
+				final Path<Protein> path = endpoints[i].compareTo(endpoints[j]) < 0
+						? paths.get(endpoints[i]).get(endpoints[j])
+						: paths.get(endpoints[j]).get(endpoints[i]);
 				for(Edge<Protein> edge : path.getEdges()){
 					graph.addEdge(edge.getSource(), edge.getTarget(), edge.getWeight());
 				}
@@ -13,6 +13,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.armanious.graph.Graph;
 import org.armanious.graph.LayeredGraph;
@@ -54,7 +55,7 @@ public class GeneSetMap {
 		uniqueGenes = new HashSet<>();
 		uniqueProteins = new HashSet<>();
 		for(String id : map.keySet()){
-			final GeneSet geneSet = new GeneSet(map.get(id), geneDatabase, new Graph<>(maxPathCost, maxPathLength));
+			final GeneSet geneSet = new GeneSet(map.get(id), geneDatabase, new Graph<>(maxPathCost, maxPathLength, true));
 			geneSetMap.put(id, geneSet);
 			uniqueGenes.addAll(geneSet.getGenes());
 			uniqueProteins.addAll(geneSet.getProteins());
@@ -70,7 +71,7 @@ public class GeneSetMap {
 		uniqueGenes = new HashSet<>();
 		uniqueProteins = new HashSet<>();
 		for(String id : map.keySet()){
-			final GeneSet geneSet = new GeneSet(map.get(id), new Graph<>(maxPathCost, maxPathLength));
+			final GeneSet geneSet = new GeneSet(map.get(id), new Graph<>(maxPathCost, maxPathLength, true));
 			geneSetMap.put(id, geneSet);
 			uniqueGenes.addAll(geneSet.getGenes());
 			uniqueProteins.addAll(geneSet.getProteins());
@@ -78,10 +79,13 @@ public class GeneSetMap {
 	}
 	
 	public void computePairwisePathsAndGraph(Pathfinder<Protein> pathfinder){
+		// patients are independent and the pathfinder's path cache is shared safely, so compute them in parallel
+		final Set<String> empty = geneSetMap.keySet().parallelStream()
+				.filter(patientKey -> !geneSetMap.get(patientKey).computePairwisePathsAndGraph(pathfinder))
+				.collect(Collectors.toSet());
 		final Set<String> toRemove = new HashSet<>();
 		for(String patientKey : geneSetMap.keySet()){
-			final GeneSet geneSet = geneSetMap.get(patientKey);
-			if(!geneSet.computePairwisePathsAndGraph(pathfinder)){
+			if(empty.contains(patientKey)){
 				System.err.println("[WARNING] Patient " + patientKey + " has an empty graph; removing from analyses..." +
 						"\n\tThis may be due to insufficient genes for " + patientKey + " or too restrictive path contraints to find a path between any two genes." +
 						"\n\tConsider increasing maxPathLength or maxPathCost options.");
@@ -100,7 +104,7 @@ public class GeneSetMap {
 	}
 	
 	public LayeredGraph<Protein> getLayeredGraph(Collection<String> geneSetIdentifiers){
-		final LayeredGraph<Protein> graph = new LayeredGraph<>(type, maxPathCost, maxPathLength);
+		final LayeredGraph<Protein> graph = new LayeredGraph<>(type, maxPathCost, maxPathLength, true);
 		for(String id : geneSetIdentifiers)
 			graph.addGraph(geneSetMap.get(id).getGraph());
 		return graph;
@@ -114,6 +118,20 @@ public class GeneSetMap {
 		return uniqueProteins;
 	}
 	
+	/**
+	 * @return up to {@code count} of the unique proteins, those in the most gene sets first
+	 */
+	public List<Protein> getMostFrequentProteins(int count){
+		final Map<Protein, Integer> frequencies = new HashMap<>();
+		for(GeneSet geneSet : geneSetMap.values())
+			for(Protein protein : geneSet.getProteins())
+				frequencies.merge(protein, 1, Integer::sum);
+		return frequencies.keySet().stream()
+				.sorted((a, b) -> frequencies.get(a).equals(frequencies.get(b)) ? a.compareTo(b) : frequencies.get(b) - frequencies.get(a))
+				.limit(count)
+				.collect(Collectors.toList());
+	}
+	
 	public GeneSetMap subset(Collection<String> keys){
 		final GeneSetMap gsm = new GeneSetMap(type, this.maxPathCost, this.maxPathLength);
 		for(String key : keys){
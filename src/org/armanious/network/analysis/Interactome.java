@@ -0,0 +1,653 @@
+package org.armanious.network.analysis;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.armanious.Tuple;
+import org.armanious.graph.CompressedGraph;
+import org.armanious.graph.HubLabels;
+import org.armanious.graph.LandmarkIndex;
+
+/**
+ * The human interactome and alias tables of a STRING release in compiled form. The adjacency is kept
+ * in compressed-sparse-row layout indexed by protein, and the whole structure can be written to and
+ * memory-mapped back from a binary snapshot so that the STRING text files only need to be parsed once.
+ * The interactions of each protein are ordered by decreasing score, so the interactions passing any
+ * confidence threshold form a prefix of the row. This order is also the order in which searches relax them,
+ * so it decides which of several equally cheap paths is found and, under a limiting maximum path length, which
+ * paths are found at all; see {@link CompressedGraph}.
+ */
+public final class Interactome {
+
+	private static final int MAGIC = 0x50494E54; // "PINT"
+	private static final int LANDMARKS_MAGIC = 0x4C4D4B53; // "LMKS"
+	private static final int HUB_LABELS_MAGIC = 0x48554253; // "HUBS"
+	static final int FORMAT_VERSION = 3;
+	// magic number, format version and the STRING version, a string of at most 65535 bytes
+	private static final int MAX_HEADER_LENGTH = 4 + 4 + 2 + 0xFFFF;
+
+	private final String stringDatabaseVersion;
+	private final long aliasesFileLength;
+	private final long interactomeFileLength;
+
+	private final Map<String, Gene> geneMap;
+	private final Map<String, Protein> proteinMap;
+	private final ProteinRegistry registry;
+
+	private final IntBuffer offsets;
+	private final IntBuffer targets;
+	private final ShortBuffer weights;
+
+	private final Map<Integer, int[]> thresholdEnds = new HashMap<>();
+
+	private Interactome(String stringDatabaseVersion, long aliasesFileLength, long interactomeFileLength,
+			Map<String, Gene> geneMap, Map<String, Protein> proteinMap, ProteinRegistry registry,
+			IntBuffer offsets, IntBuffer targets, ShortBuffer weights){
+		this.stringDatabaseVersion = stringDatabaseVersion;
+		this.aliasesFileLength = aliasesFileLength;
+		this.interactomeFileLength = interactomeFileLength;
+		this.geneMap = geneMap;
+		this.proteinMap = proteinMap;
+		this.registry = registry;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.weights = weights;
+	}
+
+	public String getStringDatabaseVersion(){
+		return stringDatabaseVersion;
+	}
+
+	public Map<String, Gene> getGeneMap(){
+		return geneMap;
+	}
+
+	public Map<String, Protein> getProteinMap(){
+		return proteinMap;
+	}
+
+	public ProteinRegistry getRegistry(){
+		return registry;
+	}
+
+	public int getProteinCount(){
+		return registry.size();
+	}
+
+	public Protein getProtein(int index){
+		return registry.get(index);
+	}
+
+	public int indexOf(Protein protein){
+		return registry.indexOf(protein);
+	}
+
+	public int getInteractionCount(){
+		return targets.limit() / 2;
+	}
+
+	int edgesStart(int protein){
+		return offsets.get(protein);
+	}
+
+	int edgesEnd(int protein){
+		return offsets.get(protein + 1);
+	}
+
+	/**
+	 * @return the end of every row's prefix of interactions scoring at least {@code threshold}, indexed by
+	 * protein; computed once per distinct threshold and shared by every graph built with it
+	 */
+	int[] edgesEnd(double threshold){
+		final int minWeight = (int) Math.ceil(threshold);
+		synchronized(thresholdEnds){
+			int[] ends = thresholdEnds.get(minWeight);
+			if(ends == null){
+				ends = new int[getProteinCount()];
+				for(int protein = 0; protein < ends.length; protein++){
+					int low = edgesStart(protein);
+					int high = edgesEnd(protein);
+					while(low < high){
+						final int mid = (low + high) >>> 1;
+						if(weights.get(mid) >= minWeight) low = mid + 1;
+						else high = mid;
+					}
+					ends[protein] = low;
+				}
+				thresholdEnds.put(minWeight, ends);
+			}
+			return ends;
+		}
+	}
+
+	int edgeTarget(int edge){
+		return targets.get(edge);
+	}
+
+	int edgeWeight(int edge){
+		return weights.get(edge);
+	}
+
+	/**
+	 * Returns the snapshot at {@code snapshotFile} if it is present and was compiled from the given STRING
+	 * files; otherwise parses the STRING files and writes a fresh snapshot for subsequent runs.
+	 */
+	public static Interactome load(String snapshotFile, String proteinAliasesFile, String proteinInteractomeFile, String stringDatabaseVersion) throws IOException {
+		return Futures.join(loadAsync(snapshotFile, proteinAliasesFile, proteinInteractomeFile, stringDatabaseVersion, new CompletableFuture<>()));
+	}
+
+	/**
+	 * Like {@link #load(String, String, String, String)}, but completes {@code aliases} with the gene and protein
+	 * maps as soon as they are known, which is well before the interactome itself if it has to be compiled.
+	 */
+	public static CompletableFuture<Interactome> loadAsync(String snapshotFile, String proteinAliasesFile, String proteinInteractomeFile, String stringDatabaseVersion,
+			CompletableFuture<Tuple<Map<String, Gene>, Map<String, Protein>>> aliases){
+		final File snapshot = new File(snapshotFile);
+		if(snapshot.exists()){
+			try {
+				final Interactome interactome = mapSnapshot(snapshot);
+				if(interactome.isCompiledFrom(proteinAliasesFile, proteinInteractomeFile, stringDatabaseVersion)){
+					System.out.println("Loaded interactome snapshot " + snapshotFile);
+					aliases.complete(new Tuple<>(interactome.getGeneMap(), interactome.getProteinMap()));
+					return CompletableFuture.completedFuture(interactome);
+				}
+				System.out.println("Interactome snapshot " + snapshotFile + " is outdated; recompiling...");
+			} catch (IOException e) {
+				System.out.println(e.getMessage() + "; recompiling...");
+			}
+		}
+		return compileAsync(proteinAliasesFile, proteinInteractomeFile, stringDatabaseVersion, aliases).thenApply(interactome -> {
+			try {
+				interactome.writeSnapshot(snapshot);
+				System.out.println("Saved interactome snapshot to " + snapshotFile);
+			} catch (IOException e) {
+				System.err.println("[WARNING] Could not save interactome snapshot to " + snapshotFile + ": " + e.getMessage());
+			}
+			return interactome;
+		});
+	}
+
+	private static long fileLength(String file){
+		final File f = new File(file);
+		return f.exists() ? f.length() : -1;
+	}
+
+	private boolean isCompiledFrom(String proteinAliasesFile, String proteinInteractomeFile, String stringDatabaseVersion){
+		if(!this.stringDatabaseVersion.equals(stringDatabaseVersion)) return false;
+		// only compare against the source files if they are still around; the snapshot alone is sufficient to run
+		final long aliasesFileLength = fileLength(proteinAliasesFile);
+		final long interactomeFileLength = fileLength(proteinInteractomeFile);
+		return (aliasesFileLength == -1 || aliasesFileLength == this.aliasesFileLength)
+				&& (interactomeFileLength == -1 || interactomeFileLength == this.interactomeFileLength);
+	}
+
+	public static Interactome compile(String proteinAliasesFile, String proteinInteractomeFile, String stringDatabaseVersion) throws IOException {
+		return Futures.join(compileAsync(proteinAliasesFile, proteinInteractomeFile, stringDatabaseVersion, new CompletableFuture<>()));
+	}
+
+	// the alias and interaction files are parsed concurrently; only building the rows needs both
+	private static CompletableFuture<Interactome> compileAsync(String proteinAliasesFile, String proteinInteractomeFile, String stringDatabaseVersion,
+			CompletableFuture<Tuple<Map<String, Gene>, Map<String, Protein>>> aliases){
+		final CompletableFuture<List<LinkBuffer>> links = Futures.supplyAsync(() -> parseLinks(proteinInteractomeFile));
+		Futures.supplyAsync(() -> Gene.loadGenes(proteinAliasesFile)).whenComplete((maps, e) -> {
+			if(e == null) aliases.complete(maps);
+			else aliases.completeExceptionally(e);
+		});
+		return aliases.thenCombine(links, (maps, chunks) -> fromLinks(maps.val1(), maps.val2(), chunks,
+				stringDatabaseVersion, fileLength(proteinAliasesFile), fileLength(proteinInteractomeFile)));
+	}
+
+	static Interactome parse(String proteinInteractomeFile, Map<String, Gene> geneMap, Map<String, Protein> proteinMap,
+			String stringDatabaseVersion, long aliasesFileLength) throws IOException {
+		return fromLinks(geneMap, proteinMap, parseLinks(proteinInteractomeFile),
+				stringDatabaseVersion, aliasesFileLength, fileLength(proteinInteractomeFile));
+	}
+
+	private static List<LinkBuffer> parseLinks(String proteinInteractomeFile) throws IOException {
+		System.out.println("Compiling protein interaction graph...");
+		return ParallelLineParser.parse(proteinInteractomeFile, LinkBuffer::new, (line, links) -> {
+			if(line.isEmpty() || line.byteAt(0) != '9' || line.split(' ') < 3) //only 9606 i.e. humans
+				return;
+			// STRING lists every interaction in both directions; keep one and mirror it when building the rows
+			if(line.compareFields(0, 1) >= 0) return;
+			links.add(links.encode(line, 0), links.encode(line, 1), (short) line.parseInt(2));
+		});
+	}
+
+	private static Interactome fromLinks(Map<String, Gene> geneMap, Map<String, Protein> proteinMap, List<LinkBuffer> links,
+			String stringDatabaseVersion, long aliasesFileLength, long interactomeFileLength){
+		final ProteinRegistry registry = new ProteinRegistry(proteinMap.values());
+		final List<InteractionBuffer> chunks = links.parallelStream().map(chunk -> chunk.resolve(registry)).collect(Collectors.toList());
+		final Interactome interactome = fromInteractions(stringDatabaseVersion, aliasesFileLength, interactomeFileLength,
+				geneMap, proteinMap, registry, chunks);
+		System.out.println("Compiled protein interaction graph with " + interactome.getInteractionCount() + " interactions");
+		return interactome;
+	}
+
+	/**
+	 * Interactions as read from the file, before the protein indices are known. Identifiers in 9606.ENSP
+	 * form are kept encoded; any other identifier is stored as -2 - (its position in {@code names}).
+	 */
+	private static final class LinkBuffer {
+
+		private long[] sources = new long[1 << 12];
+		private long[] targets = new long[1 << 12];
+		private short[] weights = new short[1 << 12];
+		private int size;
+		private final ArrayList<String> names = new ArrayList<>();
+
+		long encode(LineScanner line, int field){
+			final long encoded = line.encodeProteinId(field);
+			if(encoded != -1) return encoded;
+			names.add(line.getField(field));
+			return -1 - names.size();
+		}
+
+		void add(long source, long target, short weight){
+			if(size == sources.length){
+				sources = Arrays.copyOf(sources, size * 2);
+				targets = Arrays.copyOf(targets, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			sources[size] = source;
+			targets[size] = target;
+			weights[size] = weight;
+			size++;
+		}
+
+		private int indexOf(long id, ProteinRegistry registry){
+			return id >= 0 ? registry.indexOf(id) : registry.indexOf(names.get((int) (-2 - id)));
+		}
+
+		// interactions involving proteins without an alias are dropped
+		InteractionBuffer resolve(ProteinRegistry registry){
+			final InteractionBuffer interactions = new InteractionBuffer();
+			for(int i = 0; i < size; i++){
+				final int a = indexOf(sources[i], registry);
+				final int b = indexOf(targets[i], registry);
+				if(a >= 0 && b >= 0) interactions.add(a, b, weights[i]);
+			}
+			return interactions;
+		}
+
+	}
+
+	private static final class InteractionBuffer {
+
+		private int[] sources = new int[1 << 12];
+		private int[] targets = new int[1 << 12];
+		private short[] weights = new short[1 << 12];
+		private int size;
+
+		void add(int source, int target, short weight){
+			if(size == sources.length){
+				sources = Arrays.copyOf(sources, size * 2);
+				targets = Arrays.copyOf(targets, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+			sources[size] = source;
+			targets[size] = target;
+			weights[size] = weight;
+			size++;
+		}
+
+	}
+
+	private static Interactome fromInteractions(String stringDatabaseVersion, long aliasesFileLength, long interactomeFileLength,
+			Map<String, Gene> geneMap, Map<String, Protein> proteinMap, ProteinRegistry registry, List<InteractionBuffer> chunks){
+		final int count = registry.size();
+		final int[] offsets = new int[count + 1];
+		int size = 0;
+		for(InteractionBuffer chunk : chunks){
+			for(int i = 0; i < chunk.size; i++){
+				offsets[chunk.sources[i] + 1]++;
+				offsets[chunk.targets[i] + 1]++;
+			}
+			size += chunk.size;
+		}
+		for(int i = 0; i < count; i++)
+			offsets[i + 1] += offsets[i];
+		final int[] next = Arrays.copyOf(offsets, count);
+		final int[] rowTargets = new int[size * 2];
+		final short[] rowWeights = new short[size * 2];
+		for(InteractionBuffer chunk : chunks){
+			for(int i = 0; i < chunk.size; i++){
+				int pos = next[chunk.sources[i]]++;
+				rowTargets[pos] = chunk.targets[i];
+				rowWeights[pos] = chunk.weights[i];
+				pos = next[chunk.targets[i]]++;
+				rowTargets[pos] = chunk.sources[i];
+				rowWeights[pos] = chunk.weights[i];
+			}
+		}
+		sortRows(offsets, rowTargets, rowWeights);
+		return new Interactome(stringDatabaseVersion, aliasesFileLength, interactomeFileLength, geneMap, proteinMap, registry,
+				IntBuffer.wrap(offsets), IntBuffer.wrap(rowTargets), ShortBuffer.wrap(rowWeights));
+	}
+
+	// orders every row by decreasing weight, then by target; being fixed by the data, it makes ties between
+	// equally cheap paths come out the same on every run and from every snapshot
+	private static void sortRows(int[] offsets, int[] targets, short[] weights){
+		long[] keys = new long[0];
+		for(int row = 0; row + 1 < offsets.length; row++){
+			final int start = offsets[row];
+			final int length = offsets[row + 1] - start;
+			if(keys.length < length) keys = new long[length];
+			for(int i = 0; i < length; i++)
+				keys[i] = ((long) (Short.MAX_VALUE - weights[start + i]) << 32) | targets[start + i];
+			Arrays.sort(keys, 0, length);
+			for(int i = 0; i < length; i++){
+				targets[start + i] = (int) keys[i];
+				weights[start + i] = (short) (Short.MAX_VALUE - (keys[i] >>> 32));
+			}
+		}
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeShort(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer in){
+		final byte[] bytes = new byte[in.getShort() & 0xFFFF];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	public void writeSnapshot(File file) throws IOException {
+		// genes are identified by the symbol they were registered under; every other key is a synonym
+		final ArrayList<Gene> genes = new ArrayList<>();
+		final IdentityHashMap<Gene, Integer> geneIndices = new IdentityHashMap<>();
+		final ArrayList<String> synonyms = new ArrayList<>();
+		for(String symbol : geneMap.keySet()){
+			final Gene gene = geneMap.get(symbol);
+			if(gene.getSymbol().equals(symbol))
+				genes.add(gene);
+			else
+				synonyms.add(symbol);
+		}
+		genes.sort((x, y) -> x.getSymbol().compareTo(y.getSymbol()));
+		Collections.sort(synonyms);
+		for(int i = 0; i < genes.size(); i++)
+			geneIndices.put(genes.get(i), i);
+
+		final File tmp = new File(file.getPath() + ".tmp");
+		try(final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))){
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			writeString(out, stringDatabaseVersion);
+			out.writeLong(aliasesFileLength);
+			out.writeLong(interactomeFileLength);
+
+			out.writeInt(genes.size());
+			for(Gene gene : genes)
+				writeString(out, gene.getSymbol());
+
+			// the gene each protein id resolves to in the protein map; ids are stored in their encoded form where possible
+			out.writeInt(registry.size());
+			for(int i = 0; i < registry.size(); i++){
+				final Protein protein = registry.get(i);
+				final long encoded = ProteinRegistry.encode(protein.getId());
+				out.writeLong(encoded);
+				if(encoded == -1) writeString(out, protein.getId());
+				out.writeInt(geneIndices.get(protein.getGene()));
+			}
+
+			int memberships = 0;
+			for(Gene gene : genes)
+				memberships += gene.getProteins().size();
+			out.writeInt(memberships);
+			for(int i = 0; i < genes.size(); i++){
+				for(Protein protein : genes.get(i).getProteins()){
+					out.writeInt(i);
+					out.writeInt(registry.indexOf(protein.getId()));
+				}
+			}
+
+			out.writeInt(synonyms.size());
+			for(String synonym : synonyms){
+				writeString(out, synonym);
+				out.writeInt(geneIndices.get(geneMap.get(synonym)));
+			}
+
+			out.writeInt(targets.limit());
+			while(out.size() % 4 != 0) out.writeByte(0);
+			for(int i = 0; i <= registry.size(); i++)
+				out.writeInt(offsets.get(i));
+			for(int i = 0; i < targets.limit(); i++)
+				out.writeInt(targets.get(i));
+			for(int i = 0; i < weights.limit(); i++)
+				out.writeShort(weights.get(i));
+		}
+		if(file.exists() && !file.delete())
+			throw new IOException("Cannot replace existing snapshot " + file);
+		if(!tmp.renameTo(file))
+			throw new IOException("Cannot move " + tmp + " to " + file);
+	}
+
+	/**
+	 * @return whether {@code snapshotFile} is a snapshot in the current format for {@code stringDatabaseVersion},
+	 * which {@link #load(String, String, String, String)} can run from without the STRING files
+	 */
+	public static boolean isSnapshotUsable(String snapshotFile, String stringDatabaseVersion){
+		final File file = new File(snapshotFile);
+		if(!file.exists()) return false;
+		// read into the heap rather than mapped, since a live mapping keeps the file from being deleted on Windows
+		try(final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			final ByteBuffer header = ByteBuffer.allocate((int) Math.min(channel.size(), MAX_HEADER_LENGTH));
+			while(header.hasRemaining() && channel.read(header) >= 0);
+			header.flip();
+			return readHeader(header, file).equals(stringDatabaseVersion);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	private static MappedByteBuffer map(File file) throws IOException {
+		try(final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+	}
+
+	// checks the magic number and format version, and returns the STRING version the snapshot was compiled from
+	private static String readHeader(ByteBuffer in, File file) throws IOException {
+		if(in.limit() < 8 || in.getInt() != MAGIC)
+			throw new IOException(file + " is not an interactome snapshot");
+		final int version = in.getInt();
+		if(version != FORMAT_VERSION)
+			throw new IOException("Interactome snapshot " + file + " has format version " + version + "; expected " + FORMAT_VERSION);
+		try {
+			return readString(in);
+		} catch (BufferUnderflowException e) {
+			throw new IOException("Interactome snapshot " + file + " is truncated", e);
+		}
+	}
+
+	public static Interactome mapSnapshot(File file) throws IOException {
+		final MappedByteBuffer in = map(file);
+		final String stringDatabaseVersion = readHeader(in, file);
+		try {
+			return readSnapshot(in, stringDatabaseVersion);
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NegativeArraySizeException e) {
+			// the header was fine, so the rest was cut short or overwritten
+			throw new IOException("Interactome snapshot " + file + " is truncated or corrupt", e);
+		}
+	}
+
+	private static Interactome readSnapshot(ByteBuffer in, String stringDatabaseVersion) {
+		final long aliasesFileLength = in.getLong();
+		final long interactomeFileLength = in.getLong();
+
+		final Gene[] genes = new Gene[in.getInt()];
+		final Map<String, Gene> geneMap = new HashMap<>();
+		for(int i = 0; i < genes.length; i++){
+			genes[i] = new Gene(readString(in));
+			geneMap.put(genes[i].getSymbol(), genes[i]);
+		}
+
+		final String[] ids = new String[in.getInt()];
+		final int[] proteinGenes = new int[ids.length];
+		for(int i = 0; i < ids.length; i++){
+			final long encoded = in.getLong();
+			ids[i] = encoded == -1 ? readString(in) : ProteinRegistry.decode(encoded);
+			proteinGenes[i] = in.getInt();
+		}
+
+		final Protein[] proteins = new Protein[ids.length];
+		final Map<String, Protein> proteinMap = new HashMap<>();
+		for(int memberships = in.getInt(); memberships > 0; memberships--){
+			final int gene = in.getInt();
+			final int protein = in.getInt();
+			final Protein p = genes[gene].addProtein(ids[protein]);
+			if(proteinGenes[protein] == gene){
+				proteins[protein] = p;
+				proteinMap.put(ids[protein], p);
+			}
+		}
+
+		for(int synonyms = in.getInt(); synonyms > 0; synonyms--){
+			final String synonym = readString(in);
+			geneMap.put(synonym, genes[in.getInt()]);
+		}
+
+		final int edges = in.getInt();
+		while(in.position() % 4 != 0) in.get();
+		final IntBuffer offsets = slice(in, (proteins.length + 1) * 4).asIntBuffer();
+		final IntBuffer targets = slice(in, edges * 4).asIntBuffer();
+		final ShortBuffer weights = slice(in, edges * 2).asShortBuffer();
+		if(offsets.get(proteins.length) != edges)
+			throw new IllegalArgumentException("The protein offsets do not cover the " + edges + " interactions");
+
+		return new Interactome(stringDatabaseVersion, aliasesFileLength, interactomeFileLength, geneMap, proteinMap, new ProteinRegistry(proteins),
+				offsets, targets, weights);
+	}
+
+	private interface IndexReader<T> {
+		T read(DataInputStream in) throws IOException;
+	}
+
+	private interface IndexWriter<T> {
+		void write(T index, DataOutputStream out) throws IOException;
+	}
+
+	/**
+	 * Returns up to {@code count} landmarks over the interactions scoring at least {@code threshold}, read from
+	 * {@code file} if they were computed there for this interactome, otherwise computed over {@code graph}, which
+	 * must hold exactly those interactions, and saved to {@code file} for subsequent runs.
+	 */
+	LandmarkIndex getLandmarks(File file, double threshold, int count, Supplier<CompressedGraph<Protein>> graph){
+		return loadOrCompute(file, LANDMARKS_MAGIC, "landmarks", new long[]{(long) Math.ceil(threshold), count}, LandmarkIndex::read,
+				() -> {
+					System.out.println("Computing " + count + " landmarks...");
+					return LandmarkIndex.compute(graph.get(), count);
+				}, LandmarkIndex::write);
+	}
+
+	/**
+	 * Like {@link #getLandmarks(File, double, int, Supplier)}, for hub labels covering paths up to {@code maxPathCost}.
+	 */
+	HubLabels getHubLabels(File file, double threshold, double maxPathCost, Supplier<CompressedGraph<Protein>> graph){
+		final HubLabels hubLabels = loadOrCompute(file, HUB_LABELS_MAGIC, "hub labels", new long[]{(long) Math.ceil(threshold), (long) Math.floor(maxPathCost)},
+				HubLabels::read, () -> {
+					System.out.println("Computing hub labels...");
+					final long start = System.currentTimeMillis();
+					final HubLabels computed = HubLabels.compute(graph.get(), maxPathCost);
+					System.out.println("Computed hub labels in " + (System.currentTimeMillis() - start) + " ms");
+					return computed;
+				}, HubLabels::write);
+		System.out.println("Hub labels have " + hubLabels.getEntryCount() + " entries (" + String.format("%.1f", (double) hubLabels.getEntryCount() / getProteinCount())
+				+ " per protein) taking " + String.format("%.1f", hubLabels.getMemoryFootprint() / (1024D * 1024D)) + " MB");
+		return hubLabels;
+	}
+
+	// indices over the interactome are kept next to the snapshot, along with what they were computed from
+	private <T> T loadOrCompute(File file, int magic, String name, long[] parameters, IndexReader<T> reader, Supplier<T> compute, IndexWriter<T> writer){
+		if(file.exists()){
+			try(final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))){
+				boolean current = in.readInt() == magic && in.readInt() == FORMAT_VERSION
+						&& in.readUTF().equals(String.valueOf(stringDatabaseVersion))
+						&& in.readLong() == aliasesFileLength && in.readLong() == interactomeFileLength
+						&& in.readInt() == getProteinCount() && in.readInt() == getInteractionCount();
+				for(int i = 0; i < parameters.length && current; i++)
+					current = in.readLong() == parameters[i];
+				if(current){
+					final T index = reader.read(in);
+					System.out.println("Loaded " + name + " from " + file);
+					return index;
+				}
+				System.out.println("The " + name + " in " + file + " are outdated; recomputing...");
+			} catch (IOException e) {
+				System.out.println("Cannot read " + name + " from " + file + ": " + e.getMessage() + "; recomputing...");
+			}
+		}
+
+		final T index = compute.get();
+		final File tmp = new File(file.getPath() + ".tmp");
+		try {
+			try(final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))){
+				out.writeInt(magic);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(String.valueOf(stringDatabaseVersion));
+				out.writeLong(aliasesFileLength);
+				out.writeLong(interactomeFileLength);
+				out.writeInt(getProteinCount());
+				out.writeInt(getInteractionCount());
+				for(long parameter : parameters)
+					out.writeLong(parameter);
+				writer.write(index, out);
+			}
+			if(file.exists() && !file.delete())
+				throw new IOException("Cannot replace existing " + name + " " + file);
+			if(!tmp.renameTo(file))
+				throw new IOException("Cannot move " + tmp + " to " + file);
+			System.out.println("Saved " + name + " to " + file);
+		} catch (IOException e) {
+			System.err.println("[WARNING] Could not save " + name + " to " + file + ": " + e.getMessage());
+		}
+		return index;
+	}
+
+	private static ByteBuffer slice(ByteBuffer in, int length){
+		final ByteBuffer slice = in.slice();
+		slice.limit(length);
+		in.position(in.position() + length);
+		return slice;
+	}
+
+	public static void main(String...args) throws IOException {
+		if(args == null || (args.length != 3 && args.length != 4)){
+			System.err.println("Usage:\njava -cp Proteinarium.jar " + Interactome.class.getName()
+					+ " protein_aliases_file protein_interactome_file snapshot_file [string_database_version]");
+			System.exit(1);
+		}
+		final Interactome interactome = compile(args[0], args[1], args.length == 4 ? args[3] : "11.0");
+		interactome.writeSnapshot(new File(args[2]));
+		System.out.println("Saved interactome snapshot to " + args[2]);
+	}
+
+}
@@ -0,0 +1,171 @@
+package org.armanious.network.analysis;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Reads delimited text lines straight out of a reusable byte buffer. Fields are exposed by index and
+ * can be compared, parsed as numbers or looked up in a {@link ByteKeyMap} without allocating a
+ * {@code String} per field; {@link #getField(int)} is only needed for values that are kept.
+ */
+final class LineScanner {
+
+	private final InputStream in;
+	private byte[] buffer;
+	private int limit;
+	private int position;
+
+	private int lineStart;
+	private int lineEnd;
+
+	private int[] fieldStarts = new int[8];
+	private int[] fieldEnds = new int[8];
+	private int fieldCount;
+
+	LineScanner(InputStream in){
+		this.in = in;
+		this.buffer = new byte[1 << 16];
+	}
+
+	LineScanner(byte[] bytes, int length){
+		this.in = null;
+		this.buffer = bytes;
+		this.limit = length;
+	}
+
+	boolean nextLine() throws IOException {
+		fieldCount = 0;
+		int scan = position;
+		while(true){
+			while(scan < limit && buffer[scan] != '\n') scan++;
+			if(scan < limit) break;
+			final int scanned = scan - position;
+			if(in == null || !fill()){
+				if(position >= limit) return false;
+				scan = limit;
+				break;
+			}
+			scan = position + scanned;
+		}
+		lineStart = position;
+		lineEnd = scan;
+		position = Math.min(scan + 1, limit);
+		if(lineEnd > lineStart && buffer[lineEnd - 1] == '\r') lineEnd--;
+		return true;
+	}
+
+	// moves the unread bytes to the front of the buffer and reads more; returns false at the end of the stream
+	private boolean fill() throws IOException {
+		final int unread = limit - position;
+		if(position > 0){
+			System.arraycopy(buffer, position, buffer, 0, unread);
+		}else if(unread == buffer.length){
+			buffer = Arrays.copyOf(buffer, buffer.length * 2);
+		}
+		position = 0;
+		limit = unread;
+		final int read = in.read(buffer, limit, buffer.length - limit);
+		if(read <= 0) return false;
+		limit += read;
+		return true;
+	}
+
+	boolean isEmpty(){
+		return lineEnd == lineStart;
+	}
+
+	byte byteAt(int index){
+		return buffer[lineStart + index];
+	}
+
+	int split(char delimiter){
+		fieldCount = 0;
+		int start = lineStart;
+		for(int i = lineStart; i <= lineEnd; i++){
+			if(i < lineEnd && buffer[i] != delimiter) continue;
+			if(fieldCount == fieldStarts.length){
+				fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+				fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+			}
+			fieldStarts[fieldCount] = start;
+			fieldEnds[fieldCount] = i;
+			fieldCount++;
+			start = i + 1;
+		}
+		return fieldCount;
+	}
+
+	int fieldLength(int field){
+		return fieldEnds[field] - fieldStarts[field];
+	}
+
+	// ASCII case-insensitive comparison of a field against a lower-case value
+	boolean fieldEqualsIgnoreCase(int field, byte[] value){
+		if(fieldLength(field) != value.length) return false;
+		for(int i = 0; i < value.length; i++){
+			final byte b = buffer[fieldStarts[field] + i];
+			if(b != value[i] && (b < 'A' || b > 'Z' || b + ('a' - 'A') != value[i]))
+				return false;
+		}
+		return true;
+	}
+
+	boolean fieldContains(int field, byte[] value){
+		final int last = fieldEnds[field] - value.length;
+		outer:
+		for(int start = fieldStarts[field]; start <= last; start++){
+			for(int i = 0; i < value.length; i++)
+				if(buffer[start + i] != value[i])
+					continue outer;
+			return true;
+		}
+		return false;
+	}
+
+	// lexicographic comparison of the bytes of two fields
+	int compareFields(int a, int b){
+		final int lengthA = fieldLength(a);
+		final int lengthB = fieldLength(b);
+		for(int i = 0; i < Math.min(lengthA, lengthB); i++){
+			final int comparison = (buffer[fieldStarts[a] + i] & 0xFF) - (buffer[fieldStarts[b] + i] & 0xFF);
+			if(comparison != 0) return comparison;
+		}
+		return lengthA - lengthB;
+	}
+
+	long encodeProteinId(int field){
+		return ProteinRegistry.encode(buffer, fieldStarts[field], fieldLength(field));
+	}
+
+	int parseInt(int field){
+		int i = fieldStarts[field];
+		final int end = fieldEnds[field];
+		final boolean negative = i < end && buffer[i] == '-';
+		if(negative || (i < end && buffer[i] == '+')) i++;
+		if(i == end) throw new NumberFormatException("For input string: \"" + getField(field) + "\"");
+		int value = 0;
+		for(; i < end; i++){
+			final int digit = buffer[i] - '0';
+			if(digit < 0 || digit > 9 || value > (Integer.MAX_VALUE - digit) / 10)
+				throw new NumberFormatException("For input string: \"" + getField(field) + "\"");
+			value = value * 10 + digit;
+		}
+		return negative ? -value : value;
+	}
+
+	<V> V lookup(int field, ByteKeyMap<V> map){
+		return map.get(buffer, fieldStarts[field], fieldLength(field));
+	}
+
+	String getField(int field){
+		return new String(buffer, fieldStarts[field], fieldLength(field), StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public String toString(){
+		return new String(buffer, lineStart, lineEnd - lineStart, StandardCharsets.UTF_8);
+	}
+
+}
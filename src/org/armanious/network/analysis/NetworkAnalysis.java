@@ -2,12 +2,13 @@ package org.armanious.network.analysis;
 
 import java.awt.Color;
 import java.awt.Desktop;
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -19,6 +20,7 @@ import java.util.Map;
 import java.util.Random;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 import org.armanious.Tuple;
@@ -26,6 +28,7 @@ import org.armanious.graph.Edge;
 import org.armanious.graph.Graph;
 import org.armanious.graph.LayeredGraph;
 import org.armanious.graph.Path;
+import org.armanious.graph.PathfindingAlgorithm;
 import org.armanious.network.Configuration;
 import org.armanious.network.visualization.DendrogramRenderer;
 import org.armanious.network.visualization.ForceDirectedLayout;
@@ -38,22 +41,49 @@ public final class NetworkAnalysis {
 
 	private static final String PROJECT_DATA_SUFFIX = "_Data.txt";
 
-	public static void run(Configuration c) throws IOException {
-		// load gene sets
-		Tuple<Map<String, Gene>, Map<String, Protein>> maps = Gene.loadGenes(c.generalConfig.proteinAliasesFile);		
-		final Map<String, Gene> geneMap = maps.val1();
-		final Map<String, Protein> proteinMap = maps.val2();
-		Function<String, Gene> database = (symbol) -> geneMap.get(symbol);
+	private static double getInteractomeThreshold(Configuration c) {
+		return Math.max(1000D - c.analysisConfig.maxPathCost, c.analysisConfig.minInteractomeConfidence);
+	}
+
+	private static ProteinInteractionGraph createInteractionGraph(Configuration c, Interactome interactome, GeneSetMap combined) {
+		if(c.analysisConfig.lazyInteractomeLoading){
+			// combined holds the gene sets of both groups, so its proteins are every endpoint we will search between
+			return new ProteinInteractionGraph(getInteractomeThreshold(c), interactome, combined.getUniqueProteins(),
+					c.analysisConfig.maxPathCost, c.analysisConfig.maxPathLength);
+		}
+		return new ProteinInteractionGraph(getInteractomeThreshold(c), interactome,
+				c.analysisConfig.maxPathCost, c.analysisConfig.maxPathLength);
+	}
+
+	private static CompletableFuture<GeneSetMap> loadGeneSetMapAsync(Configuration c, String file, CompletableFuture<Tuple<Map<String, Gene>, Map<String, Protein>>> aliases, LayeredGraph.Type type) {
+		return aliases.thenCompose(maps -> Futures.supplyAsync(() -> GeneSetMap.loadFromFile(file, symbol -> maps.val1().get(symbol),
+				type, c.analysisConfig.maxPathCost, c.analysisConfig.maxPathLength)));
+	}
 
+	public static void run(Configuration c) throws IOException {
 		if(c.generalConfig.group1GeneSetFile == null){
 			System.err.println("group1GeneSetFile must be specified; exiting...");
 			System.exit(1);
 		}
 		final double maxPathCost = c.analysisConfig.maxPathCost;
 		final int maxPathLength = c.analysisConfig.maxPathLength;
+		final boolean hasGroup2 = c.generalConfig.group2GeneSetFile != null && !c.generalConfig.group2GeneSetFile.trim().isEmpty();
+
+		// the gene sets and previously computed paths only depend on the alias tables, and the whole interactome
+		// graph only on the interactome, so these branches load concurrently and are joined below
+		final GeneDatabase database = GeneDatabase.get(c);
+		final CompletableFuture<Tuple<Map<String, Gene>, Map<String, Protein>>> aliases = database.getAliasesAsync();
+		final CompletableFuture<Interactome> interactome = database.getInteractomeAsync();
+		final CompletableFuture<GeneSetMap> group1Future = loadGeneSetMapAsync(c, c.generalConfig.group1GeneSetFile, aliases, LayeredGraph.Type.GROUP1);
+		final CompletableFuture<GeneSetMap> group2Future = hasGroup2 ? loadGeneSetMapAsync(c, c.generalConfig.group2GeneSetFile, aliases, LayeredGraph.Type.GROUP2) : null;
+		final CompletableFuture<Map<Protein, Map<Protein, Path<Protein>>>> precomputedPaths = aliases.thenCompose(maps -> loadPreviousPathsAsync(c, maps.val2()));
+		final CompletableFuture<ProteinInteractionGraph> eagerPig = c.analysisConfig.lazyInteractomeLoading ? null
+				: Futures.thenApplyAsync(interactome, i -> createInteractionGraph(c, i, null));
+
+		Futures.join(aliases);
 		GeneSetMap group1;
 		try {
-			group1 = GeneSetMap.loadFromFile(c.generalConfig.group1GeneSetFile, database, LayeredGraph.Type.GROUP1, maxPathCost, maxPathLength);
+			group1 = Futures.join(group1Future);
 		} catch(IOException e) {
 			System.err.println("Invalid group1GeneSetFile file or file format: " + c.generalConfig.group1GeneSetFile);
 			System.exit(1);
@@ -62,9 +92,9 @@ public final class NetworkAnalysis {
 		GeneSetMap group2;			
 		final Map<String, GeneSet> combinedMap = new HashMap<>();
 		combinedMap.putAll(group1.getGeneSetMap());
-		if(c.generalConfig.group2GeneSetFile != null && !c.generalConfig.group2GeneSetFile.trim().isEmpty()) {
+		if(hasGroup2) {
 			try {
-				group2 = GeneSetMap.loadFromFile(c.generalConfig.group2GeneSetFile, database, LayeredGraph.Type.GROUP2, maxPathCost, maxPathLength);
+				group2 = Futures.join(group2Future);
 				combinedMap.putAll(group2.getGeneSetMap());
 			} catch (IOException e) {
 				System.err.println("Invalid group2GeneSetFile file or file format: " + c.generalConfig.group2GeneSetFile);
@@ -76,7 +106,8 @@ public final class NetworkAnalysis {
 		}
 		final GeneSetMap combined = GeneSetMap.fromExistingMap(combinedMap, LayeredGraph.Type.COMBINED, maxPathCost, maxPathLength);
 
-		run(c, group1, group2, combined, proteinMap);
+		final ProteinInteractionGraph pig = eagerPig != null ? Futures.join(eagerPig) : createInteractionGraph(c, Futures.join(interactome), combined);
+		run(c, group1, group2, combined, pig, precomputedPaths);
 	}
 
 	public static void run(Configuration c, GeneSetMap group1) throws IOException {
@@ -84,16 +115,30 @@ public final class NetworkAnalysis {
 	}
 
 	public static void run(Configuration c, GeneSetMap group1, GeneSetMap group2) throws IOException {
-		final Tuple<Map<String, Gene>, Map<String, Protein>> maps = Gene.loadGenes(c.generalConfig.proteinAliasesFile);		
-		final Map<String, Protein> proteinMap = maps.val2();
+		final Interactome interactome = GeneDatabase.get(c).getInteractome();
 		final Map<String, GeneSet> combinedMap = new HashMap<>();
 		combinedMap.putAll(group1.getGeneSetMap());
 		combinedMap.putAll(group2.getGeneSetMap());
 		final GeneSetMap combined = GeneSetMap.fromExistingMap(combinedMap, LayeredGraph.Type.COMBINED, c.analysisConfig.maxPathCost, c.analysisConfig.maxPathLength);
-		run(c, group1, group2, combined, proteinMap);
+		run(c, group1, group2, combined, interactome);
+	}
+
+	public static void run(Configuration c, GeneSetMap group1, GeneSetMap group2, GeneSetMap combined, Interactome interactome) throws IOException {
+		final CompletableFuture<Map<Protein, Map<Protein, Path<Protein>>>> precomputedPaths = loadPreviousPathsAsync(c, interactome.getProteinMap());
+		run(c, group1, group2, combined, createInteractionGraph(c, interactome, combined), precomputedPaths);
 	}
 
+	/**
+	 * Resolves previously saved paths through {@code proteinMap}; the interactome is the shared one of
+	 * {@link GeneDatabase}, so the STRING links file is not parsed again.
+	 */
 	public static void run(Configuration c, GeneSetMap group1, GeneSetMap group2, GeneSetMap combined, Map<String, Protein> proteinMap) throws IOException {
+		final CompletableFuture<Map<Protein, Map<Protein, Path<Protein>>>> precomputedPaths = loadPreviousPathsAsync(c, proteinMap);
+		run(c, group1, group2, combined, createInteractionGraph(c, GeneDatabase.get(c).getInteractome(), combined), precomputedPaths);
+	}
+
+	private static void run(Configuration c, GeneSetMap group1, GeneSetMap group2, GeneSetMap combined, ProteinInteractionGraph pig,
+			CompletableFuture<Map<Protein, Map<Protein, Path<Protein>>>> precomputedPaths) throws IOException {
 		for(String group1Key : group1.getGeneSetMap().keySet()){
 			if(group2.getGeneSetMap().keySet().contains(group1Key)){
 				System.err.println("Cannot have duplicate patient identifier: " + group1Key);
@@ -102,7 +147,29 @@ public final class NetworkAnalysis {
 		}
 		
 		// load/compute pairwise shortest paths
-		computeAndSaveSetGraphs(c, group1, group2, combined, proteinMap);
+		if(c.analysisConfig.kernelizeInteractome){
+			if(c.analysisConfig.pathfindingAlgorithm == PathfindingAlgorithm.HUB_LABELS)
+				System.err.println("[WARNING] kernelizeInteractome is ignored with the HUB_LABELS pathfinding algorithm.");
+			else
+				pig.kernelize(combined.getUniqueProteins());
+		}
+		if(c.analysisConfig.indexReachability)
+			pig.indexReachability(combined.getUniqueProteins());
+		if(c.analysisConfig.hubProteinCount > 0){
+			if(c.analysisConfig.pathfindingAlgorithm != PathfindingAlgorithm.DIJKSTRA){
+				System.err.println("[WARNING] hubProteinCount is ignored with the " + c.analysisConfig.pathfindingAlgorithm + " pathfinding algorithm.");
+			}else{
+				final List<Protein> hubs = combined.getMostFrequentProteins(c.analysisConfig.hubProteinCount);
+				System.out.println("Computing shortest-path trees from " + hubs.size() + " hub proteins...");
+				pig.precomputeTrees(hubs);
+			}
+		}
+		pig.setPathfindingAlgorithm(c.analysisConfig.pathfindingAlgorithm);
+		if(c.analysisConfig.pathfindingAlgorithm == PathfindingAlgorithm.ALT)
+			pig.loadLandmarks(new File(c.generalConfig.interactomeSnapshotFile + ".landmarks"), c.analysisConfig.landmarkCount);
+		if(c.analysisConfig.pathfindingAlgorithm == PathfindingAlgorithm.HUB_LABELS)
+			pig.loadHubLabels(new File(c.generalConfig.interactomeSnapshotFile + ".hublabels"));
+		computeAndSaveSetGraphs(c, group1, group2, combined, pig, precomputedPaths);
 
 
 		// UPGMA
@@ -143,7 +210,7 @@ public final class NetworkAnalysis {
 		byTargets.put(target, path);
 	}
 
-	private static void savePaths(Configuration c, File file, HashMap<Protein, HashMap<Protein, Path<Protein>>> hashMap) throws IOException {
+	private static void savePaths(Configuration c, File file, Map<Protein, Map<Protein, Path<Protein>>> hashMap) throws IOException {
 		int saved = 0;
 		//final Set<Tuple<Protein, Protein>> checked = new HashSet<>();
 		try(final BufferedWriter bw = new BufferedWriter(new FileWriter(file))){
@@ -183,15 +250,20 @@ public final class NetworkAnalysis {
 	}
 
 
+	private static final byte[] NO_PATH = "nopath".getBytes(StandardCharsets.US_ASCII);
+
 	//TODO FIXME
 	private static void loadPaths(Configuration c, File file, Map<Protein, Map<Protein, Path<Protein>>> map, Map<String, Protein> proteinMap) throws IOException {
-		try(final BufferedReader br = new BufferedReader(new FileReader(file))){
+		try(final InputStream in = new FileInputStream(file)){
+			final LineScanner line = new LineScanner(in);
 			int count = 0;
-			String s;
 
-			final double minConfidence = Double.parseDouble(br.readLine());
-			final int maxPathLength = Integer.parseInt(br.readLine());
-			final double maxPathUnconfidence = Double.parseDouble(br.readLine());
+			if(!line.nextLine()) return;
+			final double minConfidence = Double.parseDouble(line.toString());
+			line.nextLine();
+			final int maxPathLength = Integer.parseInt(line.toString());
+			line.nextLine();
+			final double maxPathUnconfidence = Double.parseDouble(line.toString());
 
 			if(minConfidence != c.analysisConfig.minInteractomeConfidence
 					|| maxPathLength != c.analysisConfig.maxPathLength
@@ -200,25 +272,25 @@ public final class NetworkAnalysis {
 				return;
 			}
 
-			while((s = br.readLine()) != null){
+			final ByteKeyMap<Protein> proteins = ByteKeyMap.of(proteinMap);
+			while(line.nextLine()){
 				count++;
-				final String[] parts = s.split(",");
-				if(parts.length < 3) continue;
-				if(parts.length == 3 && parts[0].equalsIgnoreCase("nopath")){
-					final Protein source = proteinMap.get(parts[1]); //Protein.getProtein(parts[1], true);
-					final Protein target = proteinMap.get(parts[2]); //Protein.getProtein(parts[2], true);
-					//System.out.println("L," + source.getId() + "," + target.getId());
+				final int parts = line.split(',');
+				if(parts < 3) continue;
+				if(parts == 3 && line.fieldEqualsIgnoreCase(0, NO_PATH)){
+					final Protein source = line.lookup(1, proteins);
+					final Protein target = line.lookup(2, proteins);
 					assert(source.getId().compareTo(target.getId()) <= 0);
 					addPathToMapHelper(source, target, new Path<>(), map);
 				}else{
-					final Protein source = proteinMap.get(parts[0]); //Protein.getProtein(parts[0], true);
+					final Protein source = line.lookup(0, proteins);
 					Protein prev = source;
 					Protein target = null;
 
 					final ArrayList<Edge<Protein>> pathEdges = new ArrayList<>();
-					for(int i = 1; i < parts.length - 1; i += 2){
-						final int weight = Integer.parseInt(parts[i]);
-						target = proteinMap.get(parts[i+1]); //Protein.getProtein(parts[i+1], true);
+					for(int i = 1; i < parts - 1; i += 2){
+						final int weight = line.parseInt(i);
+						target = line.lookup(i + 1, proteins);
 						pathEdges.add(new Edge<>(prev, target, weight));
 						prev = target;
 					}
@@ -232,18 +304,23 @@ public final class NetworkAnalysis {
 	
 	//private static int hits;
 	//private static int misses;
-	private static void computeAndSaveSetGraphs(Configuration c, GeneSetMap group1, GeneSetMap group2, GeneSetMap combined, Map<String, Protein> proteinMap) throws IOException {
-		final File dataFile = new File(c.generalConfig.activeDirectory + c.generalConfig.projectName + PROJECT_DATA_SUFFIX);
-		final Map<Protein, Map<Protein, Path<Protein>>> precomputedPaths = new HashMap<>();
-		if(c.analysisConfig.reusePreviousData && dataFile.exists())
-			loadPaths(c, dataFile, precomputedPaths, proteinMap);
-
-		// load protein interactome TODO load lazily
-		ProteinInteractionGraph pig = new ProteinInteractionGraph(
-				Math.max(1000D - c.analysisConfig.maxPathCost, c.analysisConfig.minInteractomeConfidence),
-				c.generalConfig.proteinInteractomeFile,
-				proteinMap, c.analysisConfig.maxPathCost, c.analysisConfig.maxPathLength);
-		pig.updatePaths(precomputedPaths);
+	private static File getDataFile(Configuration c) {
+		return new File(c.generalConfig.activeDirectory + c.generalConfig.projectName + PROJECT_DATA_SUFFIX);
+	}
+
+	private static CompletableFuture<Map<Protein, Map<Protein, Path<Protein>>>> loadPreviousPathsAsync(Configuration c, Map<String, Protein> proteinMap) {
+		return Futures.supplyAsync(() -> {
+			final File dataFile = getDataFile(c);
+			final Map<Protein, Map<Protein, Path<Protein>>> precomputedPaths = new HashMap<>();
+			if(c.analysisConfig.reusePreviousData && dataFile.exists())
+				loadPaths(c, dataFile, precomputedPaths, proteinMap);
+			return precomputedPaths;
+		});
+	}
+
+	private static void computeAndSaveSetGraphs(Configuration c, GeneSetMap group1, GeneSetMap group2, GeneSetMap combined, ProteinInteractionGraph pig,
+			CompletableFuture<Map<Protein, Map<Protein, Path<Protein>>>> precomputedPaths) throws IOException {
+		pig.updatePaths(Futures.join(precomputedPaths));
 		// TODO double check Dijkstra' returning null
 		System.out.println("Computing pairwise paths...");
 		group1.computePairwisePathsAndGraph(pig);
@@ -260,7 +337,7 @@ public final class NetworkAnalysis {
 		//System.out.println(hits + " path cache hits.");
 		//System.out.println(misses + " path cache misses.");
 		//System.out.println((double) hits / (hits + misses) + " proportion of paths cached.");
-		savePaths(c, dataFile, pig.getPaths());
+		savePaths(c, getDataFile(c), pig.getPaths());
 	}
 
 	public static Color parseColorOrDefault(String s, Color defaultColor){
@@ -459,7 +536,8 @@ public final class NetworkAnalysis {
 		out.newLine();
 		for(Protein p : graph.getVertices()){
 			for(Edge<Protein> e : graph.getNeighbors(p)){
-				if(e.getSource().getId().compareTo(e.getTarget().getId()) > 0) continue;
+				// each interaction is listed under both of its proteins
+				if(!e.getSource().equals(p) || e.getSource().getId().compareTo(e.getTarget().getId()) > 0) continue;
 				out.write(e.getSource().getGene() == null ? e.getSource().getId() : e.getSource().getGene().getSymbol());
 				out.write('\t');
 				out.write(e.getTarget().getGene() == null ? e.getTarget().getId() : e.getTarget().getGene().getSymbol());
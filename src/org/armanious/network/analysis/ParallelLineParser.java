@@ -0,0 +1,111 @@
+package org.armanious.network.analysis;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Parses a (possibly gzipped) text file with one decompression stage feeding a pool of parsing workers.
+ * The file is cut into line-aligned chunks, each chunk is parsed into its own buffer, and the buffers
+ * are returned in file order so callers can merge them as if the file had been read sequentially.
+ */
+final class ParallelLineParser {
+
+	private ParallelLineParser(){}
+
+	private static final int CHUNK_SIZE = 1 << 20;
+
+	interface LineHandler<B> {
+		void handle(LineScanner line, B buffer);
+	}
+
+	static int getParallelism(){
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+	static InputStream open(String file) throws IOException {
+		final InputStream in = new FileInputStream(file);
+		return file.endsWith(".gz") ? new GZIPInputStream(in, 1 << 16) : in;
+	}
+
+	static <B> List<B> parse(String file, Supplier<B> bufferFactory, LineHandler<B> handler) throws IOException {
+		final int parallelism = getParallelism();
+		final ExecutorService workers = Executors.newFixedThreadPool(parallelism, r -> {
+			final Thread t = new Thread(r, "ParallelLineParser");
+			t.setDaemon(true);
+			return t;
+		});
+		// bounds the number of decompressed chunks waiting to be parsed
+		final Semaphore pending = new Semaphore(parallelism * 2);
+		final List<Future<B>> results = new ArrayList<>();
+		try(final InputStream in = open(file)){
+			byte[] chunk = new byte[CHUNK_SIZE];
+			int length = 0;
+			while(true){
+				final int read = in.read(chunk, length, chunk.length - length);
+				if(read > 0) length += read;
+				final boolean eof = read == -1;
+				if(!eof && length < chunk.length) continue;
+
+				int end = length;
+				if(!eof){
+					while(end > 0 && chunk[end - 1] != '\n') end--;
+					if(end == 0){
+						// a single line longer than the chunk; keep reading until it ends
+						chunk = Arrays.copyOf(chunk, chunk.length * 2);
+						continue;
+					}
+				}
+				final byte[] next = new byte[Math.max(CHUNK_SIZE, length - end)];
+				System.arraycopy(chunk, end, next, 0, length - end);
+
+				pending.acquireUninterruptibly();
+				final byte[] toParse = chunk;
+				final int toParseLength = end;
+				results.add(workers.submit(() -> {
+					try {
+						return parseChunk(toParse, toParseLength, bufferFactory.get(), handler);
+					} finally {
+						pending.release();
+					}
+				}));
+
+				if(eof) break;
+				chunk = next;
+				length -= end;
+			}
+
+			final List<B> buffers = new ArrayList<>(results.size());
+			for(Future<B> result : results)
+				buffers.add(result.get());
+			return buffers;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while parsing " + file, e);
+		} catch (ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+			if(e.getCause() instanceof Error) throw (Error) e.getCause();
+			throw new IOException("Error parsing " + file, e.getCause());
+		} finally {
+			workers.shutdownNow();
+		}
+	}
+
+	private static <B> B parseChunk(byte[] chunk, int length, B buffer, LineHandler<B> handler) throws IOException {
+		final LineScanner line = new LineScanner(chunk, length);
+		while(line.nextLine())
+			handler.handle(line, buffer);
+		return buffer;
+	}
+
+}
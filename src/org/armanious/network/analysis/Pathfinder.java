@@ -1,9 +1,40 @@
 package org.armanious.network.analysis;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 import org.armanious.graph.Path;
 
 public interface Pathfinder<T> {
 	
 	Path<T> findPath(T src, T dst);
 
+	/**
+	 * @return false only if no path within this pathfinder's bounds joins {@code src} and {@code dst}, for
+	 * pathfinders that can tell without searching; such pairs are neither searched nor cached
+	 */
+	default boolean isReachable(T src, T dst) {
+		return true;
+	}
+
+	/**
+	 * Prepares for queries between any of {@code vertices}, for pathfinders that load their graph lazily, so
+	 * that they can do it in one go rather than once per query.
+	 */
+	default void ensureLoaded(Collection<T> vertices) {
+	}
+
+	/**
+	 * Finds the paths from {@code src} to every vertex of {@code dsts}, keyed by destination. The result is
+	 * the same as calling {@link #findPath(Object, Object)} for each destination, but implementations may
+	 * answer all of them from a single search.
+	 */
+	default Map<T, Path<T>> findPaths(T src, Collection<T> dsts) {
+		final Map<T, Path<T>> paths = new HashMap<>();
+		for(T dst : dsts)
+			paths.put(dst, findPath(src, dst));
+		return paths;
+	}
+
 }
@@ -4,10 +4,13 @@ public class Protein implements Comparable<Protein> {
 	
 	private final Gene gene;
 	private final String id;
+	private final long encodedId;
+	private int index = -1;
 	
 	protected Protein(Gene gene, String id){
 		this.gene = gene;
 		this.id = id;
+		this.encodedId = ProteinRegistry.encode(id);
 	}
 	
 	public Gene getGene(){
@@ -18,6 +21,21 @@ public class Protein implements Comparable<Protein> {
 		return id;
 	}
 	
+	long getEncodedId(){
+		return encodedId;
+	}
+	
+	/**
+	 * @return the dense index assigned by the {@link ProteinRegistry} this protein was registered with, or -1
+	 */
+	public int getIndex(){
+		return index;
+	}
+	
+	void setIndex(int index){
+		this.index = index;
+	}
+	
 	@Override
 	public String toString(){
 		return getId();
@@ -29,7 +47,7 @@ public class Protein implements Comparable<Protein> {
 	}
 	
 	public boolean equals(Protein p){
-		return getId().equals(p.getId());
+		return this == p || (encodedId == p.encodedId && (encodedId >= 0 || id.equals(p.id)));
 	}
 	
 	@Override
@@ -39,6 +57,8 @@ public class Protein implements Comparable<Protein> {
 
 	@Override
 	public int compareTo(Protein p) {
+		// identifiers sharing the 9606.ENSP prefix and digit count order the same way as their suffixes
+		if(encodedId >= 0 && p.encodedId >= 0) return Long.compare(encodedId, p.encodedId);
 		return id.compareTo(p.id);
 	}
 
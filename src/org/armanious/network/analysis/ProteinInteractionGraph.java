@@ -1,56 +1,363 @@
 package org.armanious.network.analysis;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
-import java.util.zip.GZIPInputStream;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
-import org.armanious.graph.Graph;
+import org.armanious.graph.CompressedGraph;
+import org.armanious.graph.Edge;
 import org.armanious.graph.Path;
 
-public class ProteinInteractionGraph extends Graph<Protein> {
+public class ProteinInteractionGraph extends CompressedGraph<Protein> {
 	
 	public ProteinInteractionGraph(double threshold, String interactomeFile, Map<String, Protein> proteinMap, double maxPathCost, int maxPathLength) throws IOException {
-		super(maxPathCost, maxPathLength);
-		InputStream is = new FileInputStream(interactomeFile);
-		if(interactomeFile.endsWith(".gz"))
-			is = new GZIPInputStream(is);
-		load(threshold, new BufferedReader(new InputStreamReader(is)), proteinMap);
+		this(threshold, Interactome.parse(interactomeFile, Collections.emptyMap(), proteinMap, null, -1), maxPathCost, maxPathLength);
 	}
 
-	private void load(double threshold, BufferedReader in, Map<String, Protein> proteinMap) throws IOException {
+	private final Interactome interactome;
+	private final double threshold;
+	// end of each protein's interactions scoring at least the threshold
+	private final int[] ends;
+	// null when the whole interactome was loaded up front; only used while holding the lock
+	private final boolean[] expanded;
+	// the number of BFS levels around each protein known to be expanded, positive exactly for the expanded
+	// proteins; raised only once the adjacency holding those levels is in place, so it can be read without the lock
+	private final AtomicIntegerArray reach;
+
+	/**
+	 * Loads every interaction scoring at least {@code threshold}. The rows are copied out of the memory-mapped
+	 * interactome onto the heap, 6 bytes per interaction and 4 per protein, because the searches work on arrays.
+	 */
+	public ProteinInteractionGraph(double threshold, Interactome interactome, double maxPathCost, int maxPathLength) {
+		super(interactome.getRegistry(), maxPathCost, maxPathLength);
+		this.interactome = interactome;
+		this.threshold = threshold;
+		this.ends = interactome.edgesEnd(threshold);
+		this.expanded = null;
+		this.reach = null;
 		System.out.println("Loading protein interaction graph...");
-		String s;
-		while((s = in.readLine()) != null){
-			final String[] parts = s.split(" ");
-			if(parts[0].length() == 0 || parts[0].charAt(0) != '9') //only 9606 i.e. humans
-				continue;
-			final int weight = Integer.parseInt(parts[2]);
-			if(weight >= threshold){
-				final Protein a = proteinMap.get(parts[0]); //Protein.getProtein(parts[0], true);
-				final Protein b = proteinMap.get(parts[1]); //Protein.getProtein(parts[1], true);
-				if(a != null && b != null)
-					addEdge(a, b, weight);
+		copyInteractions((offsets, targets, weights) -> {
+			setAdjacency(offsets, targets, weights);
+			return this;
+		});
+		System.out.println("Loaded protein interaction graph with " + getEdgeCount() + " interactions taking "
+				+ String.format("%.1f", (6L * getEdgeCount() + 4L * (interactome.getProteinCount() + 1)) / (1024D * 1024D)) + " MB of heap");
+	}
+
+	private interface AdjacencyFunction<T> {
+		T apply(int[] offsets, int[] targets, short[] weights);
+	}
+
+	// every interaction scoring at least the threshold
+	private <T> T copyInteractions(AdjacencyFunction<T> function){
+		final int[] offsets = new int[interactome.getProteinCount() + 1];
+		for(int a = 0; a < ends.length; a++)
+			offsets[a + 1] = offsets[a] + ends[a] - interactome.edgesStart(a);
+		final int[] targets = new int[offsets[ends.length]];
+		final short[] weights = new short[targets.length];
+		for(int a = 0; a < ends.length; a++){
+			for(int edge = interactome.edgesStart(a), pos = offsets[a]; edge < ends[a]; edge++, pos++){
+				targets[pos] = interactome.edgeTarget(edge);
+				weights[pos] = (short) interactome.edgeWeight(edge);
 			}
 		}
-		in.close();
-		System.out.println("Loaded protein interaction graph");
+		return function.apply(offsets, targets, weights);
 	}
 
-	public void updatePaths(Map<Protein, Map<Protein, Path<Protein>>> precomputedPaths) {
-		for(Protein key : precomputedPaths.keySet()) {
-			HashMap<Protein, Path<Protein>> map = cachedPaths.get(key);
-			if(map == null) cachedPaths.put(key, map = new HashMap<>());
-			map.putAll(precomputedPaths.get(key));
+	/**
+	 * Loads only the part of the interactome that paths of at most {@code maxPathLength} vertices between
+	 * the given endpoints can reach; the region is grown when paths from or to any other protein are queried.
+	 * Each growth rebuilds the adjacency of the whole region once, so callers about to query many new proteins
+	 * should pass them all to {@link #ensureLoaded(Collection)} first.
+	 */
+	public ProteinInteractionGraph(double threshold, Interactome interactome, Collection<Protein> endpoints, double maxPathCost, int maxPathLength) {
+		super(interactome.getRegistry(), maxPathCost, maxPathLength);
+		this.interactome = interactome;
+		this.threshold = threshold;
+		this.ends = interactome.edgesEnd(threshold);
+		this.expanded = new boolean[interactome.getProteinCount()];
+		this.reach = new AtomicIntegerArray(expanded.length);
+		System.out.println("Loading protein interaction graph around " + endpoints.size() + " proteins...");
+		final ArrayList<Integer> seeds = new ArrayList<>();
+		for(Protein endpoint : endpoints){
+			final int index = interactome.indexOf(endpoint);
+			if(index >= 0) seeds.add(index);
+		}
+		// the last vertex of a maximal path is never expanded by dijkstras, so stop one level short
+		expand(seeds, maxPathLength - 1);
+		System.out.println("Loaded protein interaction graph with " + getVertices().size() + " proteins");
+	}
+
+	private void expand(Collection<Integer> seeds, int levels){
+		boolean changed = false;
+		// proteins already known to have enough expanded levels around them are not walked again
+		final int[] remaining = new int[expanded.length];
+		ArrayList<Integer> frontier = new ArrayList<>();
+		for(int seed : seeds){
+			if(reach.get(seed) >= levels || remaining[seed] >= levels) continue;
+			remaining[seed] = levels;
+			frontier.add(seed);
+		}
+		for(int depth = 0; depth < levels && !frontier.isEmpty(); depth++){
+			final ArrayList<Integer> next = new ArrayList<>();
+			for(int a : frontier){
+				if(!expanded[a]){
+					expanded[a] = true;
+					changed = true;
+				}
+				final int left = levels - depth - 1;
+				if(left == 0) continue;
+				for(int edge = interactome.edgesStart(a); edge < ends[a]; edge++){
+					final int b = interactome.edgeTarget(edge);
+					if(reach.get(b) < left && remaining[b] < left){
+						remaining[b] = left;
+						next.add(b);
+					}
+				}
+			}
+			frontier = next;
+		}
+		if(changed) compressExpanded();
+		// each protein walked is expanded with the levels it was queued with
+		for(int a = 0; a < remaining.length; a++)
+			if(remaining[a] > reach.get(a)) reach.set(a, remaining[a]);
+	}
+
+	// expanded proteins get all their interactions; every other protein only those with expanded proteins
+	private void compressExpanded(){
+		final int[] offsets = new int[expanded.length + 1];
+		for(int a = 0; a < expanded.length; a++){
+			if(!expanded[a]) continue;
+			offsets[a + 1] += ends[a] - interactome.edgesStart(a);
+			for(int edge = interactome.edgesStart(a); edge < ends[a]; edge++)
+				if(!expanded[interactome.edgeTarget(edge)])
+					offsets[interactome.edgeTarget(edge) + 1]++;
+		}
+		for(int a = 0; a < expanded.length; a++)
+			offsets[a + 1] += offsets[a];
+		final int[] next = Arrays.copyOf(offsets, expanded.length);
+		final int[] targets = new int[offsets[expanded.length]];
+		final short[] weights = new short[targets.length];
+		for(int a = 0; a < expanded.length; a++){
+			if(!expanded[a]) continue;
+			for(int edge = interactome.edgesStart(a); edge < ends[a]; edge++){
+				final int b = interactome.edgeTarget(edge);
+				final short weight = (short) interactome.edgeWeight(edge);
+				targets[next[a]] = b;
+				weights[next[a]++] = weight;
+				if(!expanded[b]){
+					targets[next[b]] = a;
+					weights[next[b]++] = weight;
+				}
+			}
+		}
+		setAdjacency(offsets, targets, weights);
+	}
+
+	/**
+	 * Removes every protein that cannot lie inside a path between two of {@code endpoints}: repeatedly, any other
+	 * protein with at most one interaction left, and any chain of other proteins with two interactions each that
+	 * leads back to where it started. Paths between endpoints stay exactly the same, so this is only worth
+	 * doing when every later query is between endpoints. Interactions are counted over the whole interactome, even
+	 * for a lazily loaded graph.
+	 *
+	 * @return the number of proteins removed
+	 */
+	public int kernelize(Collection<Protein> endpoints) {
+		final int count = interactome.getProteinCount();
+		final boolean[] kept = new boolean[count];
+		for(Protein endpoint : endpoints){
+			final int index = interactome.indexOf(endpoint);
+			if(index >= 0) kept[index] = true;
+		}
+		final boolean[] removed = new boolean[count];
+		final int[] degrees = new int[count];
+		final ArrayDeque<Integer> work = new ArrayDeque<>();
+		for(int a = 0; a < count; a++){
+			degrees[a] = ends[a] - interactome.edgesStart(a);
+			if(degrees[a] > 0 && degrees[a] <= 2 && !kept[a]) work.add(a);
+		}
+		// proteins whose chain was found to join two different proteins; it only becomes removable from its ends
+		final boolean[] inChain = new boolean[count];
+		final ArrayList<Integer> chain = new ArrayList<>();
+		final ArrayList<Protein> toRemove = new ArrayList<>();
+		while(!work.isEmpty()){
+			final int a = work.poll();
+			if(removed[a] || kept[a]) continue;
+			if(degrees[a] > 2 || degrees[a] == 2 && inChain[a]) continue;
+			chain.clear();
+			chain.add(a);
+			if(degrees[a] == 2){
+				final int[] neighbors = liveNeighbors(a, removed);
+				final int first = walkChain(a, neighbors[0], kept, removed, degrees, chain);
+				if(first != a && walkChain(a, neighbors[1], kept, removed, degrees, chain) != first){
+					for(int b : chain) inChain[b] = true;
+					continue;
+				}
+			}
+			for(int b : chain){
+				if(removed[b]) continue;
+				removed[b] = true;
+				toRemove.add(interactome.getProtein(b));
+				for(int edge = interactome.edgesStart(b); edge < ends[b]; edge++){
+					final int c = interactome.edgeTarget(edge);
+					if(removed[c]) continue;
+					degrees[c]--;
+					if(!kept[c] && degrees[c] <= 2) work.add(c);
+				}
+			}
+		}
+		removeVertices(toRemove);
+		System.out.println("Kernelized protein interaction graph: removed " + toRemove.size() + " proteins that cannot lie inside a path between the " + endpoints.size() + " endpoints");
+		return toRemove.size();
+	}
+
+	// follows the chain of other proteins with two interactions each from a through next; returns where it ends
+	private int walkChain(int a, int next, boolean[] kept, boolean[] removed, int[] degrees, ArrayList<Integer> chain){
+		int prev = a;
+		while(next != a && !kept[next] && degrees[next] == 2){
+			chain.add(next);
+			final int[] neighbors = liveNeighbors(next, removed);
+			final int following = neighbors[0] == prev ? neighbors[1] : neighbors[0];
+			prev = next;
+			next = following;
+		}
+		return next;
+	}
+
+	// the two interactions left of a protein with exactly two
+	private int[] liveNeighbors(int a, boolean[] removed){
+		final int[] neighbors = new int[2];
+		int found = 0;
+		for(int edge = interactome.edgesStart(a); edge < ends[a] && found < 2; edge++)
+			if(!removed[interactome.edgeTarget(edge)])
+				neighbors[found++] = interactome.edgeTarget(edge);
+		return neighbors;
+	}
+
+	/**
+	 * Loads the region around {@code endpoints} first, so that the index is built over the graph their paths
+	 * are searched in.
+	 */
+	@Override
+	public void indexReachability(Collection<Protein> endpoints) {
+		ensureLoaded(endpoints);
+		super.indexReachability(endpoints);
+	}
+
+	/**
+	 * Sets up {@code count} landmarks over every interaction scoring at least this graph's threshold, read from
+	 * {@code file} when they were computed for the same interactome, threshold and count, otherwise computed and
+	 * saved there. A lazily loaded graph is a subgraph of that, so the landmarks' bounds hold for it as well.
+	 */
+	public void loadLandmarks(File file, int count) {
+		setLandmarks(interactome.getLandmarks(file, threshold, count, this::allInteractions));
+	}
+
+	/**
+	 * Sets up hub labels over every interaction scoring at least this graph's threshold, read from {@code file}
+	 * when they were computed for the same interactome, threshold and maximum path cost, otherwise computed and
+	 * saved there.
+	 */
+	public void loadHubLabels(File file) {
+		setHubLabels(interactome.getHubLabels(file, threshold, maxPathCost, this::allInteractions));
+	}
+
+	// a lazily loaded graph only holds part of the interactions; the indices are built over all of them
+	private CompressedGraph<Protein> allInteractions() {
+		return expanded == null ? this
+				: copyInteractions((offsets, targets, weights) -> new CompressedGraph<>(index, offsets, targets, weights, maxPathCost, maxPathLength));
+	}
+
+	/**
+	 * Loads the region that paths between any of {@code proteins} can reach, rebuilding the adjacency at most
+	 * once for all of them. {@code isReachable} only answers for loaded proteins, so this must come first;
+	 * {@link #findPath(Protein, Protein)} and {@link #findPaths(Protein, Collection)} do it themselves.
+	 */
+	@Override
+	public void ensureLoaded(Collection<Protein> proteins) {
+		if(expanded != null) ensureExpanded(proteins, maxPathLength - 1);
+	}
+
+	// every rebuild of the adjacency costs as much as the loaded region, so expand all proteins needing it at once;
+	// proteins already loaded are answered without the lock, so that threads querying them do not wait on each other
+	private void ensureExpanded(Collection<Protein> proteins, int levels){
+		ArrayList<Integer> seeds = null;
+		for(Protein protein : proteins){
+			final int index = interactome.indexOf(protein);
+			if(index >= 0 && reach.get(index) < levels){
+				if(seeds == null) seeds = new ArrayList<>();
+				seeds.add(index);
+			}
+		}
+		if(seeds == null) return;
+		synchronized(this){
+			expand(seeds, levels);
 		}
 	}
 
-	public HashMap<Protein, HashMap<Protein, Path<Protein>>> getPaths() {
-		return cachedPaths;
+	/**
+	 * A protein outside the loaded region is answered straight from the interactome, without loading it.
+	 */
+	@Override
+	public Collection<Edge<Protein>> getNeighbors(Protein n) {
+		final int a = expanded == null ? -1 : interactome.indexOf(n);
+		if(a < 0 || reach.get(a) > 0 || isRemoved(n)) return super.getNeighbors(n);
+		final ArrayList<Edge<Protein>> neighbors = new ArrayList<>(ends[a] - interactome.edgesStart(a));
+		for(int edge = interactome.edgesStart(a); edge < ends[a]; edge++){
+			final Protein target = interactome.getProtein(interactome.edgeTarget(edge));
+			if(!isRemoved(target)) neighbors.add(new Edge<>(n, target, interactome.edgeWeight(edge)));
+		}
+		return neighbors;
+	}
+
+	/**
+	 * Loads the region around {@code src} and {@code dst} first, so that reachability is decided on it.
+	 */
+	@Override
+	public Path<Protein> findPath(Protein src, Protein dst) {
+		ensureLoaded(Arrays.asList(src, dst));
+		return super.findPath(src, dst);
+	}
+
+	/**
+	 * Loads the region around {@code src} and all of {@code dsts} at once, then answers every pair from it
+	 * without loading again.
+	 */
+	@Override
+	public Map<Protein, Path<Protein>> findPaths(Protein src, Collection<Protein> dsts) {
+		if(expanded != null){
+			final ArrayList<Protein> endpoints = new ArrayList<>(dsts.size() + 1);
+			endpoints.add(src);
+			endpoints.addAll(dsts);
+			ensureLoaded(endpoints);
+		}
+		return super.findPaths(src, dsts);
+	}
+
+	/**
+	 * Caches paths found by a previous run, except those from, to or through a protein removed since.
+	 */
+	public void updatePaths(Map<Protein, Map<Protein, Path<Protein>>> precomputedPaths) {
+		precomputedPaths.forEach((src, byTarget) -> byTarget.forEach((dst, path) -> {
+			if(isRemoved(src) || isRemoved(dst)) return;
+			for(Protein protein : path.getVertices())
+				if(isRemoved(protein)) return;
+			cachedPaths.put(src, dst, path);
+		}));
+	}
+
+	/**
+	 * @return a copy of every path found or loaded so far
+	 */
+	public Map<Protein, Map<Protein, Path<Protein>>> getPaths() {
+		return cachedPaths.toMap();
 	}
 
 }
@@ -0,0 +1,118 @@
+package org.armanious.network.analysis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.armanious.graph.VertexIndex;
+
+/**
+ * Assigns every protein of an interactome a dense index in [0, size()) in identifier order, so that
+ * per-protein state can be kept in primitive arrays instead of maps keyed by {@link Protein}.
+ */
+public final class ProteinRegistry implements VertexIndex<Protein> {
+
+	private static final String ENSEMBL_PREFIX = "9606.ENSP";
+	private static final byte[] ENSEMBL_PREFIX_BYTES = ENSEMBL_PREFIX.getBytes(StandardCharsets.US_ASCII);
+	private static final int ENSEMBL_DIGITS = 11;
+
+	private final Protein[] proteins;
+
+	public ProteinRegistry(Collection<Protein> proteins){
+		this(proteins.toArray(new Protein[proteins.size()]));
+	}
+
+	ProteinRegistry(Protein[] proteins){
+		Arrays.sort(proteins);
+		for(int i = 1; i < proteins.length; i++)
+			if(proteins[i - 1].equals(proteins[i]))
+				throw new IllegalArgumentException("Protein " + proteins[i] + " registered more than once");
+		for(int i = 0; i < proteins.length; i++)
+			proteins[i].setIndex(i);
+		this.proteins = proteins;
+	}
+
+	@Override
+	public int size(){
+		return proteins.length;
+	}
+
+	@Override
+	public Protein get(int index){
+		return proteins[index];
+	}
+
+	public Protein get(String id){
+		final int index = indexOf(id);
+		return index < 0 ? null : proteins[index];
+	}
+
+	@Override
+	public int indexOf(Protein protein){
+		final int index = protein.getIndex();
+		if(index >= 0 && index < proteins.length && proteins[index] == protein) return index;
+		// an equal protein held by a different gene, or one that belongs to another registry
+		final int found = Arrays.binarySearch(proteins, protein);
+		return found < 0 ? -1 : found;
+	}
+
+	public int indexOf(String id){
+		int low = 0;
+		int high = proteins.length - 1;
+		while(low <= high){
+			final int mid = (low + high) >>> 1;
+			final int comparison = proteins[mid].getId().compareTo(id);
+			if(comparison < 0) low = mid + 1;
+			else if(comparison > 0) high = mid - 1;
+			else return mid;
+		}
+		return -1;
+	}
+
+	int indexOf(long encodedId){
+		int low = 0;
+		int high = proteins.length - 1;
+		while(low <= high){
+			final int mid = (low + high) >>> 1;
+			final Protein protein = proteins[mid];
+			// ids that cannot be encoded sort among the others by their text
+			final int comparison = protein.getEncodedId() >= 0 ? Long.compare(protein.getEncodedId(), encodedId)
+					: protein.getId().compareTo(decode(encodedId));
+			if(comparison < 0) low = mid + 1;
+			else if(comparison > 0) high = mid - 1;
+			else return mid;
+		}
+		return -1;
+	}
+
+	/**
+	 * Packs a STRING identifier of the form 9606.ENSP########### into the numeric value of its suffix.
+	 * Identifiers of any other form are encoded as -1 and have to be compared by their full text.
+	 */
+	static long encode(String id){
+		final byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+		return encode(bytes, 0, bytes.length);
+	}
+
+	static long encode(byte[] bytes, int offset, int length){
+		if(length != ENSEMBL_PREFIX_BYTES.length + ENSEMBL_DIGITS) return -1;
+		for(int i = 0; i < ENSEMBL_PREFIX_BYTES.length; i++)
+			if(bytes[offset + i] != ENSEMBL_PREFIX_BYTES[i])
+				return -1;
+		long encoded = 0;
+		for(int i = ENSEMBL_PREFIX_BYTES.length; i < length; i++){
+			final byte b = bytes[offset + i];
+			if(b < '0' || b > '9') return -1;
+			encoded = encoded * 10 + (b - '0');
+		}
+		return encoded;
+	}
+
+	static String decode(long encoded){
+		final String digits = Long.toString(encoded);
+		final StringBuilder sb = new StringBuilder(ENSEMBL_PREFIX.length() + ENSEMBL_DIGITS).append(ENSEMBL_PREFIX);
+		for(int i = digits.length(); i < ENSEMBL_DIGITS; i++) sb.append('0');
+		return sb.append(digits).toString();
+	}
+
+}
@@ -148,7 +148,7 @@ public class ForceDirectedLayout<K extends Comparable<K>> {
 				final ArrayList<Edge<K>> edgesList = edges instanceof ArrayList ? (ArrayList<Edge<K>>) edges : new ArrayList<>(edges);
 				final int[] n = new int[edgesList.size()];
 				for(int j = 0; j < edgesList.size(); j++){
-					n[j] = map.get(edgesList.get(j).getTarget());
+					n[j] = map.get(edgesList.get(j).getOpposite(vertices[i]));
 				}
 				//Arrays.sort(n);
 				neighbors[i] = n;
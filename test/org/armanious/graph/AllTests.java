@@ -0,0 +1,14 @@
+package org.armanious.graph;
+
+/**
+ * Runs every test of this package; see {@link TestGraphs} for how.
+ */
+public class AllTests {
+
+	public static void main(String...args){
+		GraphTest.main();
+		CompressedGraphTest.main();
+		PathfindingAlgorithmTest.main();
+	}
+
+}
@@ -0,0 +1,209 @@
+package org.armanious.graph;
+
+import static org.armanious.graph.TestGraphs.assertEquals;
+import static org.armanious.graph.TestGraphs.assertSamePath;
+import static org.armanious.graph.TestGraphs.assertTrue;
+import static org.armanious.graph.TestGraphs.assertValidPath;
+import static org.armanious.graph.TestGraphs.baseline;
+import static org.armanious.graph.TestGraphs.cheapestPathCounts;
+import static org.armanious.graph.TestGraphs.compressed;
+import static org.armanious.graph.TestGraphs.cost;
+import static org.armanious.graph.TestGraphs.hashed;
+import static org.armanious.graph.TestGraphs.randomEdges;
+import static org.armanious.graph.TestGraphs.vertices;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Checks that the {@link PathfindingAlgorithm#DIJKSTRA} engine of {@link CompressedGraph}, and everything built on
+ * it, returns exactly the paths of {@link Graph#dijkstras(Comparable, Comparable, java.util.function.Function, double, int)}
+ * over the same adjacency, ties and hop bound included. Against a {@link Graph} built edge by edge, whose
+ * neighbors come in hash set order, only the costs are the same, and only where the hop bound does not limit.
+ */
+public class CompressedGraphTest {
+
+	private static final int VERTICES = 40;
+	private static final double[] MAX_PATH_COSTS = {350, 2000};
+	private static final int[] MAX_PATH_LENGTHS = {3, 5, 100};
+
+	public static void main(String...args){
+		equalCostPathsAreBrokenLikeGraph();
+		rowOrderDecidesTiesAndHopBoundedPaths();
+		everyPairMatchesGraph();
+		hashSetGraphHasTheSameCosts();
+		hopBoundPrunesLikeGraph();
+		unreachablePairsAreNotSearchedOrCached();
+		precomputedTreesMatchGraph();
+		reachabilityIndexMatchesGraph();
+		removedVerticesAreLeftOut();
+		System.out.println(CompressedGraphTest.class.getSimpleName() + " passed");
+	}
+
+	// two equally cheap routes from 0 to 3, through 1 and through 2
+	static void equalCostPathsAreBrokenLikeGraph(){
+		final int[][] edges = {{0, 2, 900}, {0, 1, 900}, {1, 3, 900}, {2, 3, 900}, {3, 4, 800}, {1, 4, 700}};
+		final CompressedGraph<Integer> graph = compressed(5, edges, 2000, 100);
+		for(int src = 0; src < 5; src++)
+			for(int dst = 0; dst < 5; dst++)
+				assertSamePath(baseline(graph, src, dst), graph.computePath(src, dst), "path from " + src + " to " + dst);
+	}
+
+	// 0-1-3 and 0-2-4-3 are equally cheap; only the first leaves room for 5 within the bound of four vertices
+	static void rowOrderDecidesTiesAndHopBoundedPaths(){
+		final int[][] edges = {{0, 1, 800}, {1, 3, 800}, {0, 2, 900}, {2, 4, 900}, {4, 3, 800}, {3, 5, 900}, {0, 6, 900}};
+		final int[][] reversed = edges.clone();
+		Collections.reverse(Arrays.asList(reversed));
+		final CompressedGraph<Integer> graph = compressed(7, edges, 2000, 4);
+		final CompressedGraph<Integer> other = compressed(7, reversed, 2000, 4);
+		assertEquals(Arrays.asList(0, 2, 4, 3), graph.computePath(0, 3).getVertices(), "tie broken by row order");
+		assertEquals(Arrays.asList(0, 1, 3), other.computePath(0, 3).getVertices(), "tie broken by reversed row order");
+		assertTrue(graph.computePath(0, 5).getEdges().isEmpty(), "path pruned by the hop bound");
+		assertEquals(Arrays.asList(0, 1, 3, 5), other.computePath(0, 5).getVertices(), "path within the hop bound");
+		for(int dst = 0; dst < 7; dst++){
+			assertSamePath(baseline(graph, 0, dst), graph.computePath(0, dst), "path from 0 to " + dst);
+			assertSamePath(baseline(other, 0, dst), other.computePath(0, dst), "path from 0 to " + dst + " in reversed rows");
+		}
+	}
+
+	static void everyPairMatchesGraph(){
+		for(long seed = 0; seed < 8; seed++){
+			// few distinct weights, so that many pairs are joined by several equally cheap paths
+			final int[][] edges = randomEdges(seed, VERTICES, 100, 900, 800, 700);
+			for(double maxPathCost : MAX_PATH_COSTS){
+				for(int maxPathLength : MAX_PATH_LENGTHS){
+					final CompressedGraph<Integer> graph = compressed(VERTICES, edges, maxPathCost, maxPathLength);
+					final String name = "seed " + seed + ", maxPathCost " + maxPathCost + ", maxPathLength " + maxPathLength;
+					for(int src = 0; src < VERTICES; src++){
+						// one search per source for every destination, as findPaths does
+						final Map<Integer, Path<Integer>> paths = graph.computePaths(src, vertices(VERTICES));
+						for(int dst = 0; dst < VERTICES; dst++){
+							final Path<Integer> expected = baseline(graph, src, dst);
+							assertSamePath(expected, paths.get(dst), name + ": path from " + src + " to " + dst + " in one search");
+							assertSamePath(expected, graph.computePath(src, dst), name + ": path from " + src + " to " + dst);
+						}
+					}
+					// findPath and findPaths orient every pair from its smaller vertex and cache the result
+					for(int src = 0; src < VERTICES; src++){
+						final Map<Integer, Path<Integer>> paths = graph.findPaths(src, vertices(VERTICES));
+						for(int dst = 0; dst < VERTICES; dst++){
+							final Path<Integer> expected = baseline(graph, Math.min(src, dst), Math.max(src, dst));
+							assertSamePath(expected, paths.get(dst), name + ": found path between " + src + " and " + dst);
+							assertSamePath(expected, graph.findPath(src, dst), name + ": cached path between " + src + " and " + dst);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	static void hashSetGraphHasTheSameCosts(){
+		for(long seed = 0; seed < 8; seed++){
+			// the first weights make every path cost unique, the second many equally cheap paths
+			for(int[] weights : new int[][]{{999, 998, 996, 992, 984, 968, 936, 872}, {900, 800, 700}}){
+				final int[][] edges = randomEdges(seed, VERTICES, 100, weights);
+				for(int maxPathLength : MAX_PATH_LENGTHS){
+					final CompressedGraph<Integer> graph = compressed(VERTICES, edges, 2000, maxPathLength);
+					final Graph<Integer> hashed = hashed(edges, 2000, maxPathLength);
+					final String name = "seed " + seed + ", maxPathLength " + maxPathLength;
+					for(int src = 0; src < VERTICES; src++){
+						final int[] counts = cheapestPathCounts(graph, src);
+						for(int dst = 0; dst < VERTICES; dst++){
+							final String pair = name + ": path from " + src + " to " + dst;
+							final Path<Integer> actual = graph.computePath(src, dst);
+							assertValidPath(graph, src, dst, actual, pair);
+							// under a limiting hop bound the tie order decides which paths survive; see CompressedGraph
+							if(maxPathLength < VERTICES) continue;
+							final Path<Integer> expected = hashed.containsVertex(src) && hashed.containsVertex(dst)
+									? baseline(hashed, src, dst) : new Path<>();
+							assertEquals(cost(expected), cost(actual), pair + ": cost");
+							assertEquals(expected.getEdges().isEmpty(), actual.getEdges().isEmpty(), pair + ": whether there is a path");
+							if(counts[dst] == 1) assertSamePath(expected, actual, pair);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	// 0-1-2 is cheaper than 0-2, so 2 is first reached with three vertices and never expanded towards 3
+	static void hopBoundPrunesLikeGraph(){
+		final int[][] edges = {{0, 1, 990}, {1, 2, 990}, {0, 2, 500}, {2, 3, 990}};
+		final CompressedGraph<Integer> bounded = compressed(4, edges, 2000, 3);
+		assertSamePath(baseline(bounded, 0, 3), bounded.computePath(0, 3), "path pruned by the hop bound");
+		assertTrue(bounded.computePath(0, 3).getEdges().isEmpty(), "the hop bound should prune the only path Dijkstra keeps");
+		final CompressedGraph<Integer> unbounded = compressed(4, edges, 2000, 4);
+		assertEquals(Arrays.asList(0, 1, 2, 3), unbounded.computePath(0, 3).getVertices(), "path within the hop bound");
+		assertSamePath(baseline(unbounded, 0, 3), unbounded.computePath(0, 3), "path within the hop bound");
+	}
+
+	static void unreachablePairsAreNotSearchedOrCached(){
+		final int[][] edges = {{0, 1, 900}, {1, 2, 900}, {3, 4, 900}};
+		final CompressedGraph<Integer> graph = compressed(6, edges, 2000, 100);
+		assertTrue(graph.isConnected(0, 2), "0 and 2 share a component");
+		assertTrue(!graph.isConnected(0, 3), "0 and 3 are in different components");
+		assertTrue(!graph.isConnected(0, 5), "5 has no edges");
+		assertTrue(graph.findPath(0, 3).getEdges().isEmpty(), "no path between components");
+		assertTrue(graph.findPaths(0, Arrays.asList(2, 4, 5)).get(4).getEdges().isEmpty(), "no path between components");
+		assertEquals(null, graph.cachedPaths.get(0, 3), "pair in different components cached");
+		assertEquals(null, graph.cachedPaths.get(0, 4), "pair in different components cached");
+		assertSamePath(baseline(graph, 0, 2), graph.cachedPaths.get(0, 2), "pair in the same component");
+	}
+
+	static void precomputedTreesMatchGraph(){
+		for(long seed = 0; seed < 4; seed++){
+			final int[][] edges = randomEdges(seed, VERTICES, 100, 900, 800, 700);
+			for(int maxPathLength : MAX_PATH_LENGTHS){
+				final CompressedGraph<Integer> graph = compressed(VERTICES, edges, 2000, maxPathLength);
+				graph.precomputeTrees(vertices(VERTICES));
+				for(int src = 0; src < VERTICES; src++){
+					final Map<Integer, Path<Integer>> paths = graph.computePaths(src, vertices(VERTICES));
+					for(int dst = 0; dst < VERTICES; dst++)
+						assertSamePath(baseline(graph, src, dst), paths.get(dst), "seed " + seed + ", maxPathLength " + maxPathLength
+								+ ": tree path from " + src + " to " + dst);
+				}
+			}
+		}
+	}
+
+	static void reachabilityIndexMatchesGraph(){
+		for(long seed = 0; seed < 4; seed++){
+			final int[][] edges = randomEdges(seed, VERTICES, 60, 900, 800, 700);
+			for(int maxPathLength : MAX_PATH_LENGTHS){
+				final CompressedGraph<Integer> graph = compressed(VERTICES, edges, 2000, maxPathLength);
+				graph.indexReachability(vertices(VERTICES));
+				for(int src = 0; src < VERTICES; src++){
+					for(int dst = src + 1; dst < VERTICES; dst++){
+						final Path<Integer> expected = baseline(graph, src, dst);
+						final String name = "seed " + seed + ", maxPathLength " + maxPathLength + ": pair " + src + " and " + dst;
+						if(!graph.isReachable(src, dst))
+							assertTrue(expected.getEdges().isEmpty(), name + " ruled out, but has a path");
+						assertSamePath(expected, graph.findPath(src, dst), name);
+					}
+				}
+			}
+		}
+	}
+
+	static void removedVerticesAreLeftOut(){
+		// the cheapest path from 0 to 4 runs through 2; without 2 it goes through 1 and 3
+		final int[][] edges = {{0, 2, 990}, {2, 4, 990}, {0, 1, 900}, {1, 3, 900}, {3, 4, 900}, {2, 5, 990}};
+		final CompressedGraph<Integer> graph = compressed(6, edges, 2000, 100);
+		graph.indexReachability(vertices(6));
+		graph.precomputeTrees(Collections.singletonList(0));
+		assertEquals(Arrays.asList(0, 2, 4), graph.findPath(0, 4).getVertices(), "path before removal");
+		assertEquals(Arrays.asList(0, 2, 5), graph.findPath(0, 5).getVertices(), "path before removal");
+		graph.removeVertex(2);
+		assertTrue(graph.isRemoved(2), "2 was removed");
+		assertTrue(!graph.containsVertex(2), "2 was removed");
+		assertEquals(Arrays.asList(0, 1, 3, 4), graph.findPath(0, 4).getVertices(), "cached path through a removed vertex");
+		assertSamePath(baseline(graph, 0, 4), graph.findPath(0, 4), "path after removal");
+		assertTrue(graph.findPath(0, 5).getEdges().isEmpty(), "5 was only reachable through 2");
+		assertTrue(graph.findPath(0, 2).getEdges().isEmpty(), "path to a removed vertex");
+		for(int src = 0; src < 6; src++)
+			for(int dst = 0; dst < 6; dst++)
+				assertSamePath(baseline(graph, src, dst), graph.computePath(src, dst), "path from " + src + " to " + dst + " after removal");
+	}
+
+}
@@ -0,0 +1,62 @@
+package org.armanious.graph;
+
+import static org.armanious.graph.TestGraphs.assertEquals;
+import static org.armanious.graph.TestGraphs.assertSamePath;
+import static org.armanious.graph.TestGraphs.baseline;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Checks that removing a vertex from a {@link Graph} forgets exactly the cached paths it is part of, and that
+ * paths through it are found again once it is added back.
+ */
+public class GraphTest {
+
+	public static void main(String...args){
+		removedVerticesAreForgotten(false);
+		removedVerticesAreForgotten(true);
+		pathCacheForgetsOnlyPathsThroughTheVertex();
+		System.out.println(GraphTest.class.getSimpleName() + " passed");
+	}
+
+	// the cheapest path from 0 to 3 runs through 1; without 1 it goes through 2
+	static void removedVerticesAreForgotten(boolean undirected){
+		final Graph<Integer> graph = new Graph<>(2000, 100, undirected);
+		graph.addEdge(0, 1, 990);
+		graph.addEdge(1, 3, 990);
+		graph.addEdge(0, 2, 900);
+		graph.addEdge(2, 3, 900);
+		final String name = undirected ? "undirected graph" : "directed graph";
+		assertEquals(Arrays.asList(0, 1, 3), graph.findPath(0, 3).getVertices(), name + ": path before removal");
+		graph.removeVertex(1);
+		assertEquals(Arrays.asList(0, 2, 3), graph.findPath(0, 3).getVertices(), name + ": path after removal");
+		assertSamePath(baseline(graph, 0, 3), graph.findPath(0, 3), name + ": path after removal");
+		graph.addEdge(0, 1, 990);
+		graph.addEdge(1, 3, 990);
+		graph.removeVertex(2);
+		assertEquals(Arrays.asList(0, 1, 3), graph.findPath(0, 3).getVertices(), name + ": path through a vertex added back");
+	}
+
+	static void pathCacheForgetsOnlyPathsThroughTheVertex(){
+		final PathCache<Integer> cache = new PathCache<>();
+		final Path<Integer> through = new Path<>(Arrays.asList(new Edge<>(0, 1, 990), new Edge<>(1, 3, 990)));
+		final Path<Integer> around = new Path<>(Arrays.asList(new Edge<>(4, 2, 900), new Edge<>(2, 5, 900)));
+		cache.put(0, 3, through);
+		cache.put(4, 5, around);
+		cache.put(6, 7, new Path<>());
+		cache.remove(1);
+		assertEquals(null, cache.get(0, 3), "path through a removed vertex");
+		assertSamePath(around, cache.get(4, 5), "path around a removed vertex");
+		assertSamePath(new Path<>(), cache.get(6, 7), "empty path");
+		cache.remove(7);
+		assertEquals(null, cache.get(6, 7), "empty path to a removed vertex");
+		// a vertex that comes back is like any other
+		cache.put(0, 3, through);
+		assertSamePath(through, cache.get(0, 3), "path through a vertex added back");
+		assertEquals(Collections.singleton(3), cache.computeIfAbsent(0, Collections.singletonList(3), (s, d) -> {
+			throw new AssertionError("cached path computed again");
+		}).keySet(), "cached destinations");
+	}
+
+}
@@ -0,0 +1,194 @@
+package org.armanious.graph;
+
+import static org.armanious.graph.TestGraphs.assertEquals;
+import static org.armanious.graph.TestGraphs.assertSamePath;
+import static org.armanious.graph.TestGraphs.assertTrue;
+import static org.armanious.graph.TestGraphs.assertValidPath;
+import static org.armanious.graph.TestGraphs.baseline;
+import static org.armanious.graph.TestGraphs.cheapestPathCounts;
+import static org.armanious.graph.TestGraphs.compressed;
+import static org.armanious.graph.TestGraphs.cost;
+import static org.armanious.graph.TestGraphs.randomEdges;
+import static org.armanious.graph.TestGraphs.vertices;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Checks the other {@link PathfindingAlgorithm}s against
+ * {@link Graph#dijkstras(Comparable, Comparable, java.util.function.Function, double, int)}. Where the hop bound
+ * does not limit, they must find the same path whenever it is the only cheapest one, and a path of the same cost
+ * when there are several. With a limiting hop bound each follows its own documented rule.
+ */
+public class PathfindingAlgorithmTest {
+
+	private static final int VERTICES = 40;
+	private static final PathfindingAlgorithm[] ENGINES = {
+			PathfindingAlgorithm.BIDIRECTIONAL_DIJKSTRA, PathfindingAlgorithm.HOP_BOUNDED_BELLMAN_FORD,
+			PathfindingAlgorithm.ALT, PathfindingAlgorithm.HUB_LABELS, PathfindingAlgorithm.DELTA_STEPPING,
+			PathfindingAlgorithm.DIAL};
+
+	public static void main(String...args){
+		cheapestPathsMatchGraph();
+		shortDearPathIsFoundWithinTheHopBound();
+		hopBoundedBellmanFordIsExact();
+		hopBoundedBellmanFordFallsBackOnHugeBounds();
+		deltaSteppingMatchesGraph();
+		hubLabelDistancesMatchGraph();
+		System.out.println(PathfindingAlgorithmTest.class.getSimpleName() + " passed");
+	}
+
+	private static CompressedGraph<Integer> withEngine(int vertices, int[][] edges, double maxPathCost, int maxPathLength, PathfindingAlgorithm algorithm){
+		final CompressedGraph<Integer> graph = compressed(vertices, edges, maxPathCost, maxPathLength);
+		graph.setPathfindingAlgorithm(algorithm);
+		if(algorithm == PathfindingAlgorithm.ALT) graph.setLandmarks(LandmarkIndex.compute(graph, 4));
+		if(algorithm == PathfindingAlgorithm.HUB_LABELS) graph.setHubLabels(HubLabels.compute(graph, maxPathCost));
+		return graph;
+	}
+
+	static void cheapestPathsMatchGraph(){
+		for(long seed = 0; seed < 8; seed++){
+			// the first weights make every path cost unique, the second many equally cheap paths
+			for(int[] weights : new int[][]{{999, 998, 996, 992, 984, 968, 936, 872}, {900, 800, 700}}){
+				final int[][] edges = randomEdges(seed, VERTICES, 100, weights);
+				for(PathfindingAlgorithm algorithm : ENGINES){
+					final CompressedGraph<Integer> graph = withEngine(VERTICES, edges, 2000, 100, algorithm);
+					for(int src = 0; src < VERTICES; src++){
+						final int[] counts = cheapestPathCounts(graph, src);
+						final Map<Integer, Path<Integer>> paths = graph.computePaths(src, vertices(VERTICES));
+						for(int dst = 0; dst < VERTICES; dst++){
+							final String name = algorithm + ", seed " + seed + ": path from " + src + " to " + dst;
+							final Path<Integer> expected = baseline(graph, src, dst);
+							final Path<Integer> actual = paths.get(dst);
+							assertValidPath(graph, src, dst, actual, name);
+							if(counts[dst] == 1) assertSamePath(expected, actual, name);
+							assertEquals(cost(expected), cost(actual), name + ": cost");
+							assertEquals(expected.getEdges().isEmpty(), actual.getEdges().isEmpty(), name + ": whether there is a path");
+						}
+					}
+				}
+			}
+		}
+	}
+
+	// 0-1-2-3 is cheapest, but has four vertices; 0-4-3 is dearer and within the bound of three
+	static void shortDearPathIsFoundWithinTheHopBound(){
+		final int[][] edges = {{0, 1, 990}, {1, 2, 990}, {2, 3, 990}, {0, 4, 700}, {4, 3, 700}};
+		final CompressedGraph<Integer> reference = compressed(5, edges, 2000, 3);
+		assertEquals(Arrays.asList(0, 4, 3), baseline(reference, 0, 3).getVertices(), "path within the hop bound");
+		for(PathfindingAlgorithm algorithm : ENGINES){
+			final CompressedGraph<Integer> graph = withEngine(5, edges, 2000, 3, algorithm);
+			for(int src = 0; src < 5; src++)
+				for(int dst = 0; dst < 5; dst++)
+					assertSamePath(baseline(graph, src, dst), graph.computePath(src, dst), algorithm + ": path from " + src + " to " + dst);
+		}
+	}
+
+	/**
+	 * @return the cost of the cheapest path from {@code src} to {@code dst} with at most {@code maxPathLength}
+	 * vertices and cost at most {@code maxPathCost}, by brute force over hop counts; infinite if there is none
+	 */
+	private static double cheapestWithinHops(CompressedGraph<Integer> graph, int src, int dst){
+		final CompressedGraph.Rows rows = graph.rows();
+		final int vertices = graph.getIndex().size();
+		double[] distances = new double[vertices];
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		distances[src] = 0;
+		for(int hop = 1; hop < graph.maxPathLength; hop++){
+			final double[] next = distances.clone();
+			for(int u = 0; u < vertices; u++)
+				for(int edge = rows.offsets[u]; edge < rows.offsets[u + 1]; edge++)
+					next[rows.targets[edge]] = Math.min(next[rows.targets[edge]], distances[u] + 1000D - rows.weights[edge]);
+			distances = next;
+		}
+		return src == dst || distances[dst] > graph.maxPathCost ? Double.POSITIVE_INFINITY : distances[dst];
+	}
+
+	static void hopBoundedBellmanFordIsExact(){
+		// 0-1-2 is cheaper than 0-2, so Dijkstra reaches 2 with three vertices and never expands it towards 3
+		final int[][] trap = {{0, 1, 990}, {1, 2, 990}, {0, 2, 500}, {2, 3, 990}};
+		final CompressedGraph<Integer> trapped = withEngine(4, trap, 2000, 3, PathfindingAlgorithm.HOP_BOUNDED_BELLMAN_FORD);
+		assertTrue(baseline(trapped, 0, 3).getEdges().isEmpty(), "Dijkstra misses the path within the hop bound");
+		assertEquals(Arrays.asList(0, 2, 3), trapped.computePath(0, 3).getVertices(), "path within the hop bound");
+
+		for(long seed = 0; seed < 8; seed++){
+			final int[][] edges = randomEdges(seed, VERTICES, 100, 900, 800, 700, 600);
+			for(int maxPathLength : new int[]{2, 3, 4, 5}){
+				final CompressedGraph<Integer> graph = withEngine(VERTICES, edges, 1000, maxPathLength, PathfindingAlgorithm.HOP_BOUNDED_BELLMAN_FORD);
+				for(int src = 0; src < VERTICES; src++){
+					final Map<Integer, Path<Integer>> paths = graph.computePaths(src, vertices(VERTICES));
+					for(int dst = 0; dst < VERTICES; dst++){
+						final String name = "seed " + seed + ", maxPathLength " + maxPathLength + ": path from " + src + " to " + dst;
+						final Path<Integer> path = paths.get(dst);
+						final Path<Integer> dijkstra = baseline(graph, src, dst);
+						assertValidPath(graph, src, dst, path, name);
+						final double exact = cheapestWithinHops(graph, src, dst);
+						assertEquals(exact, path.getEdges().isEmpty() ? Double.POSITIVE_INFINITY : cost(path), name + ": cost");
+						// Dijkstra's pruning can only lose paths, never find cheaper ones
+						if(!dijkstra.getEdges().isEmpty()) assertTrue(cost(path) <= cost(dijkstra), name + ": dearer than Dijkstra's");
+					}
+				}
+			}
+		}
+	}
+
+	// the round layers for this bound would not fit in memory, so the search is Dijkstra's
+	static void hopBoundedBellmanFordFallsBackOnHugeBounds(){
+		final int[][] edges = randomEdges(0, VERTICES, 100, 900, 800, 700);
+		final CompressedGraph<Integer> graph = withEngine(VERTICES, edges, 2000, Integer.MAX_VALUE, PathfindingAlgorithm.HOP_BOUNDED_BELLMAN_FORD);
+		for(int src = 0; src < VERTICES; src++){
+			final Map<Integer, Path<Integer>> paths = graph.computePaths(src, vertices(VERTICES));
+			for(int dst = 0; dst < VERTICES; dst++)
+				assertSamePath(baseline(graph, src, dst), paths.get(dst), "path from " + src + " to " + dst);
+		}
+	}
+
+	// small graphs fall back to Dijkstra inside DELTA_STEPPING, so the parallel search is checked directly
+	static void deltaSteppingMatchesGraph(){
+		for(long seed = 0; seed < 8; seed++){
+			for(int[] weights : new int[][]{{999, 998, 996, 992, 984, 968, 936, 872}, {900, 800, 700}}){
+				final int[][] edges = randomEdges(seed, VERTICES, 100, weights);
+				final CompressedGraph<Integer> graph = compressed(VERTICES, edges, 2000, 100);
+				for(int src = 0; src < VERTICES; src++){
+					final int[] counts = cheapestPathCounts(graph, src);
+					final int[] distances = DeltaStepping.distances(graph.rows(), VERTICES, src, graph.maxPathCost);
+					for(int dst = 0; dst < VERTICES; dst++){
+						final String name = "seed " + seed + ": delta-stepping from " + src + " to " + dst;
+						final Path<Integer> expected = baseline(graph, src, dst);
+						final Path<Integer> actual = new Path<>(DeltaStepping.path(graph.getIndex(), graph.rows(), distances, src, dst));
+						if(src != dst && !expected.getEdges().isEmpty())
+							assertEquals((int) cost(expected), distances[dst], name + ": distance");
+						else if(src != dst)
+							assertEquals(Integer.MAX_VALUE, distances[dst], name + ": distance");
+						assertValidPath(graph, src, dst, actual, name);
+						assertEquals(cost(expected), cost(actual), name + ": cost");
+						if(counts[dst] == 1) assertSamePath(expected, actual, name);
+					}
+				}
+			}
+		}
+	}
+
+	static void hubLabelDistancesMatchGraph(){
+		for(long seed = 0; seed < 8; seed++){
+			final int[][] edges = randomEdges(seed, VERTICES, 80, 900, 800, 700);
+			for(double maxPathCost : new double[]{300, 2000}){
+				final CompressedGraph<Integer> graph = compressed(VERTICES, edges, maxPathCost, 100);
+				final HubLabels labels = HubLabels.compute(graph, maxPathCost);
+				final ArrayList<Integer> all = new ArrayList<>(vertices(VERTICES));
+				for(int src = 0; src < VERTICES; src++){
+					for(int dst : all){
+						final Path<Integer> expected = baseline(graph, src, dst);
+						final double distance = labels.distance(src, dst);
+						final String name = "seed " + seed + ", maxPathCost " + maxPathCost + ": distance from " + src + " to " + dst;
+						if(src == dst) assertEquals(0D, distance, name);
+						else if(expected.getEdges().isEmpty()) assertEquals(Double.POSITIVE_INFINITY, distance, name);
+						else assertEquals(cost(expected), distance, name);
+					}
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,184 @@
+package org.armanious.graph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Small deterministic graphs and the checks shared by the tests of this package. The tests are plain programs
+ * without a test framework; each one's main method throws an {@link AssertionError} at the first failure. From
+ * the repository root:
+ * <pre>
+ * javac -d bin $(find src test -name "*.java")
+ * java -ea -cp bin org.armanious.graph.AllTests
+ * </pre>
+ */
+final class TestGraphs {
+
+	private TestGraphs(){}
+
+	static VertexIndex<Integer> index(int vertices){
+		return new VertexIndex<Integer>() {
+			@Override
+			public int size() {
+				return vertices;
+			}
+
+			@Override
+			public Integer get(int index) {
+				return index;
+			}
+
+			@Override
+			public int indexOf(Integer vertex) {
+				return vertex >= 0 && vertex < vertices ? vertex : -1;
+			}
+		};
+	}
+
+	/**
+	 * @return an undirected graph with the given {@code {a, b, weight}} edges, each row listing its edges in
+	 * the order they are given
+	 */
+	static CompressedGraph<Integer> compressed(int vertices, int[][] edges, double maxPathCost, int maxPathLength){
+		final int[] offsets = new int[vertices + 1];
+		for(int[] edge : edges){
+			offsets[edge[0] + 1]++;
+			offsets[edge[1] + 1]++;
+		}
+		for(int v = 0; v < vertices; v++)
+			offsets[v + 1] += offsets[v];
+		final int[] next = offsets.clone();
+		final int[] targets = new int[offsets[vertices]];
+		final short[] weights = new short[targets.length];
+		for(int[] edge : edges){
+			targets[next[edge[0]]] = edge[1];
+			weights[next[edge[0]]++] = (short) edge[2];
+			targets[next[edge[1]]] = edge[0];
+			weights[next[edge[1]]++] = (short) edge[2];
+		}
+		return new CompressedGraph<>(index(vertices), offsets, targets, weights, maxPathCost, maxPathLength);
+	}
+
+	/**
+	 * @return the graph with the given {@code {a, b, weight}} edges built through
+	 * {@link Graph#addEdge(Comparable, Comparable, int)}, as the interactome was before it was compressed, so that
+	 * neighbors come in the order of its hash sets; vertices without edges are left out
+	 */
+	static Graph<Integer> hashed(int[][] edges, double maxPathCost, int maxPathLength){
+		final Graph<Integer> graph = new Graph<>(maxPathCost, maxPathLength);
+		for(int[] edge : edges)
+			graph.addEdge(edge[0], edge[1], edge[2]);
+		return graph;
+	}
+
+	/**
+	 * @return for every vertex, how many cheapest paths lead there from {@code source} at cost 1000 - weight,
+	 * capped at 2; 0 where it is more than {@code maxPathCost} away
+	 */
+	static int[] cheapestPathCounts(CompressedGraph<Integer> graph, int source){
+		final CompressedGraph.Rows rows = graph.rows();
+		final int vertices = graph.getIndex().size();
+		final double[] distances = new double[vertices];
+		final int[] counts = new int[vertices];
+		final boolean[] settled = new boolean[vertices];
+		Arrays.fill(distances, Double.POSITIVE_INFINITY);
+		distances[source] = 0;
+		counts[source] = 1;
+		for(int round = 0; round < vertices; round++){
+			int u = -1;
+			for(int v = 0; v < vertices; v++)
+				if(!settled[v] && distances[v] <= graph.maxPathCost && (u < 0 || distances[v] < distances[u])) u = v;
+			if(u < 0) break;
+			settled[u] = true;
+			for(int edge = rows.offsets[u]; edge < rows.offsets[u + 1]; edge++){
+				final int v = rows.targets[edge];
+				final double distance = distances[u] + 1000D - rows.weights[edge];
+				if(distance < distances[v]){
+					distances[v] = distance;
+					counts[v] = counts[u];
+				}else if(distance == distances[v]){
+					counts[v] = Math.min(2, counts[v] + counts[u]);
+				}
+			}
+		}
+		for(int v = 0; v < vertices; v++)
+			if(distances[v] > graph.maxPathCost) counts[v] = 0;
+		return counts;
+	}
+
+	/**
+	 * @return up to {@code count} distinct edges between random pairs of {@code vertices} vertices, each with
+	 * one of {@code weights}; few distinct weights make many equally cheap paths
+	 */
+	static int[][] randomEdges(long seed, int vertices, int count, int... weights){
+		final Random random = new Random(seed);
+		final HashSet<Long> pairs = new HashSet<>();
+		final ArrayList<int[]> edges = new ArrayList<>();
+		for(int i = 0; i < count; i++){
+			final int a = random.nextInt(vertices);
+			final int b = random.nextInt(vertices);
+			if(a == b || !pairs.add((long) Math.min(a, b) * vertices + Math.max(a, b))) continue;
+			edges.add(new int[]{a, b, weights[random.nextInt(weights.length)]});
+		}
+		return edges.toArray(new int[edges.size()][]);
+	}
+
+	/**
+	 * @return the path {@link Graph#dijkstras(Comparable, Comparable, java.util.function.Function, double, int)}
+	 * finds with the cost and bounds of {@link Graph#computePath(Comparable, Comparable)}; every engine is checked
+	 * against this
+	 */
+	static Path<Integer> baseline(Graph<Integer> graph, int src, int dst){
+		return graph.dijkstras(src, dst, e -> 1000D - e.getWeight(), graph.maxPathCost, graph.maxPathLength);
+	}
+
+	static double cost(Path<Integer> path){
+		double cost = 0;
+		for(Edge<Integer> edge : path.getEdges())
+			cost += 1000D - edge.getWeight();
+		return cost;
+	}
+
+	static List<Integer> vertices(int count){
+		final ArrayList<Integer> vertices = new ArrayList<>(count);
+		for(int v = 0; v < count; v++)
+			vertices.add(v);
+		return vertices;
+	}
+
+	static void assertEquals(Object expected, Object actual, String message){
+		if(!Objects.equals(expected, actual))
+			throw new AssertionError(message + ": expected " + expected + " but was " + actual);
+	}
+
+	static void assertSamePath(Path<Integer> expected, Path<Integer> actual, String message){
+		if(actual == null || !expected.equals(actual))
+			throw new AssertionError(message + ": expected " + expected.getEdges() + " but was " + (actual == null ? null : actual.getEdges()));
+	}
+
+	static void assertTrue(boolean condition, String message){
+		if(!condition) throw new AssertionError(message);
+	}
+
+	/**
+	 * Checks that {@code path} runs from {@code src} to {@code dst} along edges of {@code graph} within its bounds.
+	 */
+	static void assertValidPath(Graph<Integer> graph, int src, int dst, Path<Integer> path, String message){
+		final List<Edge<Integer>> edges = path.getEdges();
+		if(edges.isEmpty()) return;
+		assertEquals(src, edges.get(0).getSource(), message + ": first vertex");
+		assertEquals(dst, edges.get(edges.size() - 1).getTarget(), message + ": last vertex");
+		assertTrue(edges.size() + 1 <= graph.maxPathLength, message + ": " + (edges.size() + 1) + " vertices exceed the bound");
+		assertTrue(cost(path) <= graph.maxPathCost, message + ": cost " + cost(path) + " exceeds the bound");
+		for(int i = 0; i < edges.size(); i++){
+			final Edge<Integer> edge = edges.get(i);
+			if(i > 0) assertEquals(edges.get(i - 1).getTarget(), edge.getSource(), message + ": edges do not join");
+			assertTrue(graph.getNeighbors(edge.getSource()).contains(edge), message + ": " + edge + " is not an edge of the graph");
+		}
+	}
+
+}